@@ -5,6 +5,7 @@ import java.util.List;
 
 import data.Data;
 import data.Attribute;
+import data.RowCursor;
 import data.Tuple;
 import data.DiscreteAttribute;
 
@@ -57,10 +58,10 @@ class ChartF {
 	/**
 	 * Il metodo si occupa di creare la lista contenente i valori per un asse in base
 	 * ai parametri passati (nel caso di un attributo discreto).<br> 
-	 * Il metodo principalmente considera ciascuna tupla (ricavandole utilizzando il metodo
-	 * {@link data.Data#getItemSet(int)}), passando ognuna di queste al metodo 
-	 * {@link #checkVal(Tuple, Attribute)} che si occuper&agrave
-	 * di restituire il valore corretto da inserire all'interno della lista.
+	 * Il metodo principalmente considera ciascuna riga (leggendola con un cursore,
+	 * {@link data.Data#cursor()}) e ne inserisce all'interno della lista il codice del valore
+	 * dell'attributo ({@link DiscreteAttribute#getCode(String)}), che coincide con la
+	 * posizione del valore calcolata da {@link #checkVal(Tuple, Attribute)}.
 	 *
 	 * @param data La tabella {@link data.Data} da considerare
 	 * @param varAxe L'attributo da considerare per l'ottenimento dei valori
@@ -71,9 +72,11 @@ class ChartF {
 		int len = data.getNumberOfExamples();
 		List<Integer> axeValues = new ArrayList<Integer>();
 
+		RowCursor row = data.cursor();
+
 		for(int i = 0; i < len; i++){
-			Tuple dataTup = data.getItemSet(i);
-			axeValues.add(checkVal(dataTup, varAxe));
+			row.moveTo(i);
+			axeValues.add(row.getDiscreteCode(varAxe.getIndex()));
 		}
 
 		return axeValues;
@@ -108,10 +111,10 @@ class ChartF {
 	/**
 	 * Il metodo si occupa di creare la lista contenente i valori per un asse in base
 	 * ai parametri passati (nel caso di un attributo continuo).<br>
-	 * Il metodo principalmente considera ciascuna tupla (ricavandole attraverso il metodo
-	 * {@link data.Data#getItemSet(int)}) e per ciascuna di queste considera l'attributo
+	 * Il metodo principalmente considera ciascuna riga (leggendola con un cursore,
+	 * {@link data.Data#cursor()}) e per ciascuna di queste considera l'attributo
 	 * specificato ricavandone il valore che questo assume nella tabella (utilizzando il
-	 * metodo {@link data.Item#getValue()}).
+	 * metodo {@link data.RowCursor#getContinuousValue(int)}).
 	 * I valori ottenuti vengono cos&igrave aggiunti alla lista da restituire dal metodo.
 	 *
 	 * @param data Il {@link mining.ClusterSet} da considerare
@@ -124,11 +127,12 @@ class ChartF {
 		int len = data.getNumberOfExamples();
 
 
+		RowCursor row = data.cursor();
+
 		for(int i = 0; i < len; i++)
 		{
-			Tuple dataTup = data.getItemSet(i);
-			Object val = dataTup.get(varAxe.getIndex()).getValue();
-			contValues.add((Double)val);
+			row.moveTo(i);
+			contValues.add(row.getContinuousValue(varAxe.getIndex()));
 		}
 
 		return contValues;
@@ -35,20 +35,21 @@ public class PieGraph implements ChartI{
 
 	/**
 	 * Il metodo si occupa di ottenere la totalit&agrave dei valori presenti nel ClusterSet.
-	 * Il metodo esegue una sommatoria di tutti i dati presenti in ciascun Cluster
+	 * Il metodo esegue una sommatoria di tutti i dati presenti in ciascun Cluster, contando
+	 * ciascuna riga con il proprio peso (il numero delle sue occorrenze nella base di dati)
 	 *
 	 * @param data ClusterSet di cui effettuare il calcolo
 	 * @return Totalit&agrave dei valori presenti nel ClusterSet
 	 * 
 	 * @see mining.Cluster
-	 * @see mining.Cluster#getClusterSize()
+	 * @see mining.Cluster#getClusterWeight()
 	 * @see mining.ClusterSet
 	 */
 	private double getTot(ClusterSet data){
 		double tot = 0;
 
 		for(int i = 0; i < data.getLen(); i++){
-			tot += data.get(i).getClusterSize();
+			tot += data.get(i).getClusterWeight();
 		}
 
 		return tot;
@@ -82,7 +83,7 @@ public class PieGraph implements ChartI{
 		double tot = this.getTot(data);
 
 		for(int i = 0; i < data.getLen(); i++){
-			double clPerc = getPerc(data.get(i).getClusterSize(), tot);
+			double clPerc = getPerc(data.get(i).getClusterWeight(), tot);
 			dataset.setValue("Cluster " + i, clPerc);
 		}
 
@@ -66,19 +66,43 @@ public class ContinuousAttribute extends Attribute {
 	 * Calcola e restituisce il valore normalizzato del parametro passato in input. 
 	 * La normalizzazione ha come codominio lo intervallo [0,1]. 
 	 * La normalizzazione di v è quindi calcolata come segue:
-	 * v'=(v-min)/(max-min)
+	 * v'=(v-min)/(max-min)<br>
+	 * Se l'attributo &egrave costante (max = min) il valore normalizzato &egrave 0,
+	 * invece del risultato indefinito (NaN) della divisione.
 	 * 
 	 * @param v Valore da normalizzare
 	 * 
 	 * @return double che rappresenta il valore normalizzato
 	 */
 	
-	double getScaledValue(double v)
+	public double getScaledValue(double v)
 	{
 		double v1;
 		
+		// attributo costante: tutti i valori coincidono con l'estremo minimo
+		if(this.max == this.min)
+			return 0;
+		
 		v1 = (v - this.min)/(this.max - this.min);
 		
 		return v1;
 	}
+	
+	/**
+	 * Riporta un valore normalizzato nel dominio dell'attributo, invertendo
+	 * {@link #getScaledValue(double)}: v=min+v'(max-min).<br>
+	 * Per un attributo costante ritorna l'estremo minimo.
+	 * 
+	 * @param v Valore normalizzato
+	 * 
+	 * @return double che rappresenta il valore nel dominio dell'attributo
+	 */
+	
+	double getUnscaledValue(double v)
+	{
+		if(this.max == this.min)
+			return this.min;
+		
+		return this.min + v * (this.max - this.min);
+	}
 }
\ No newline at end of file
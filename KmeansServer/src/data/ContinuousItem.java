@@ -3,13 +3,23 @@ package data;
 /**
  * La classe ContinuousItem estende la classe astratta Item e rappresenta una coppia 
  * <Attributo continuo - valore numerico> Per esempio Temperature=10.5 (assumendo che
- * Temperature sia un attributo continuo.
+ * Temperature sia un attributo continuo.<br>
+ * L'item memorizza anche il valore normalizzato, utilizzato nel calcolo delle distanze. I
+ * centroidi sono rappresentati soltanto nello spazio normalizzato e il loro valore viene
+ * riportato nel dominio dell'attributo quando viene presentato ({@link #getValue()},
+ * {@link #toString()}).
  * 
  * @author Luca Suriano
  */
 
 public class ContinuousItem extends Item {
 
+	/**
+	 * Valore normalizzato nell'intervallo [0,1] ({@link ContinuousAttribute#getScaledValue(double)}),
+	 * utilizzato nel calcolo delle distanze.
+	 */
+	private double scaledValue;
+
 	/**
 	 * Invoca il costruttore della classe madre inizializzando l'attributo coninvolto
 	 * nell'item di tipo {@link ContinuousAttribute} assegnandoli il valore specificato.
@@ -19,25 +29,81 @@ public class ContinuousItem extends Item {
 	 */
 	ContinuousItem(Attribute attribute, Double value){
 		super(attribute, value);
+		this.scaledValue = ((ContinuousAttribute)attribute).getScaledValue(value);
 	}
 	
 	/**
-	 * Determina la distanza (in valore assoluto) tra il valore
-	 * scalato memorizzato nello item corrente {@link Item#getValue()} e quello scalato
-	 * associalto al parametro a.<br>
-	 * Per ottenere valori scalati si utilizza {@link ContinuousAttribute#getScaledValue(double)}
+	 * Crea un item di cui &egrave gi&agrave noto il valore normalizzato (ad esempio
+	 * letto dalle colonne normalizzate della tabella {@link Data}).
+	 * 
+	 * @param attribute	  ContinuousAttribute coinvolto nell'item corrente.
+	 * @param value		  Valore da assegnare all'item (null se va ricavato da scaledValue).
+	 * @param scaledValue Valore normalizzato corrispondente.
 	 */
+	ContinuousItem(ContinuousAttribute attribute, Double value, double scaledValue){
+		super(attribute, value);
+		this.scaledValue = scaledValue;
+	}
 	
-	double distance(Object a){
-		 
-		double dist;
-		
-		Attribute objAttribute = ((ContinuousItem)a).getAttribute();
-		
-		double currVal = ((ContinuousAttribute)this.getAttribute()).getScaledValue((Double)this.getValue());
-		
-		double tupVal = ((ContinuousAttribute)objAttribute).getScaledValue(   (Double)((ContinuousItem)a).getValue()   );
+	/**
+	 * Ritorna il valore normalizzato dell'item.
+	 */
+	public double getScaledValue(){
+		return this.scaledValue;
+	}
+	
+	/**
+	 * Imposta il valore normalizzato dell'item (ad esempio la media dei valori normalizzati
+	 * delle righe di un cluster). Il valore nel dominio dell'attributo verr&agrave ricavato
+	 * solo quando richiesto da {@link #getValue()}.
+	 * 
+	 * @param scaledValue Il nuovo valore normalizzato
+	 */
+	void setScaledValue(double scaledValue){
+		this.scaledValue = scaledValue;
+		this.value = null;
+	}
+	
+	/**
+	 * Ritorna il valore dell'item nel dominio dell'attributo. Per gli item di cui &egrave
+	 * noto soltanto il valore normalizzato (i centroidi) il valore viene ricavato con
+	 * {@link ContinuousAttribute#getUnscaledValue(double)}.
+	 */
+	public Object getValue(){
+		if(this.value != null)
+			return this.value;
 		
-		return dist = Math.abs(currVal - tupVal);
+		return ((ContinuousAttribute)this.getAttribute()).getUnscaledValue(this.scaledValue);
+	}
+	
+	public String toString(){
+		return getValue().toString();
+	}
+	
+	/**
+	 * Crea una copia dell'item con lo stesso valore normalizzato.
+	 */
+	ContinuousItem copy(){
+		return new ContinuousItem((ContinuousAttribute)this.getAttribute(), (Double)this.value, this.scaledValue);
+	}
+	
+	/**
+	 * Determina la distanza (in valore assoluto) tra il valore normalizzato
+	 * memorizzato nello item corrente e quello dell'item a.<br>
+	 * I valori normalizzati ({@link ContinuousAttribute#getScaledValue(double)}) sono
+	 * calcolati una sola volta, alla creazione delle colonne della tabella o dall'aggiornamento
+	 * dei centroidi, e non ad ogni confronto.
+	 */
+	
+	double distance(Object a){
+		return Math.abs(this.scaledValue - ((ContinuousItem)a).scaledValue);
+	}
+	
+	/**
+	 * Imposta come valore normalizzato dell'item la media dei valori normalizzati delle
+	 * righe clusteredData (vedi {@link Data#computePrototype(int[], Attribute)}).
+	 */
+	public void update(Data data, int[] clusteredData){
+		setScaledValue((Double)data.computePrototype(clusteredData, this.getAttribute()));
 	}
 }
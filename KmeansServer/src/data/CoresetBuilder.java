@@ -0,0 +1,270 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import database.Example;
+import database.ExampleHandler;
+
+/**
+ * La classe costruisce, con un'unica scansione della tabella, un coreset: un piccolo
+ * campione pesato di righe su cui l'obiettivo dell'algoritmo k-means approssima quello
+ * dell'intera tabella per qualsiasi scelta dei centroidi.<br>
+ * La costruzione segue lo schema dei coreset "leggeri": ciascuna occorrenza x viene scelta
+ * con probabilit&agrave q(x) = 1/(2N) + d(x, &mu;)/(2D), dove &mu; &egrave un centro approssimato
+ * della tabella (la media degli attributi continui e il valore pi&ugrave frequente degli
+ * attributi discreti, calcolati dalla base di dati), d la distanza di {@link Tuple#getDistance(Tuple)},
+ * N il numero di occorrenze e D la somma delle loro distanze da &mu;. Le due componenti della
+ * miscela vengono campionate in streaming con due campioni di m/2 righe ciascuno (estrazione
+ * pesata senza reinserimento di Efraimidis e Spirakis): il primo con probabilit&agrave
+ * proporzionale al numero di occorrenze della riga, il secondo proporzionale al numero di
+ * occorrenze per la distanza da &mu;. Al termine della scansione N e D sono noti: una riga
+ * con c occorrenze viene scelta in uno dei due campioni con probabilit&agrave circa
+ * m &middot; c &middot; q(x) e riceve quindi il peso 1/(m &middot; q(x)), ma mai meno di c
+ * (le righe che verrebbero scelte con probabilit&agrave superiore a 1 vengono scelte sempre e
+ * rappresentano soltanto se stesse). Una riga scelta in entrambi i campioni compare una sola volta.<br>
+ * I pesi vengono arrotondati all'intero pi&ugrave vicino (almeno 1), dato che i pesi della
+ * tabella {@link Data} sono numeri di occorrenze. Se la tabella contiene al pi&ugrave m/2
+ * righe il coreset coincide con la tabella, con i pesi esatti.<br>
+ * La memoria occupata &egrave proporzionale a m e non alla dimensione della tabella.
+ *
+ * @author Luca Suriano
+ * @see Data#Data(String, List, int, Random, database.CancellationToken)
+ */
+
+class CoresetBuilder implements ExampleHandler {
+
+	/**
+	 * Gli attributi della tabella.
+	 */
+	private List<Attribute> attributeSet;
+
+	/**
+	 * Valori scalati del centro per gli attributi continui.
+	 */
+	private double[] centerScaled;
+
+	/**
+	 * Valori del centro per gli attributi discreti (null per gli attributi continui).
+	 */
+	private Object[] centerValues;
+
+	/**
+	 * Numero di righe di ciascuno dei due campioni.
+	 */
+	private int capacity;
+
+	/**
+	 * Il generatore di numeri casuali.
+	 */
+	private Random rand;
+
+	/**
+	 * Campione proporzionale al numero di occorrenze (la riga di chiave minore in testa).
+	 */
+	private PriorityQueue<Sample> uniform = new PriorityQueue<Sample>();
+
+	/**
+	 * Campione proporzionale al numero di occorrenze per la distanza dal centro.
+	 */
+	private PriorityQueue<Sample> distant = new PriorityQueue<Sample>();
+
+	/**
+	 * Numero di righe lette.
+	 */
+	private long rows;
+
+	/**
+	 * Numero di occorrenze lette (N).
+	 */
+	private long occurrences;
+
+	/**
+	 * Somma delle distanze dal centro delle occorrenze lette (D).
+	 */
+	private double totalDistance;
+
+	/**
+	 * Crea il costruttore di un coreset di al pi&ugrave size righe.
+	 *
+	 * @param attributeSet Gli attributi della tabella
+	 * @param center	   Il centro approssimato della tabella (una tupla con gli attributi della tabella)
+	 * @param size		   Numero massimo di righe del coreset (almeno 2)
+	 * @param rand		   Il generatore di numeri casuali
+	 */
+	CoresetBuilder(List<Attribute> attributeSet, Tuple center, int size, Random rand)
+	{
+		int attrLen = attributeSet.size();
+
+		this.attributeSet = attributeSet;
+		this.capacity = size / 2;
+		this.rand = rand;
+
+		centerScaled = new double[attrLen];
+		centerValues = new Object[attrLen];
+
+		for(int a = 0; a < attrLen; a++){
+			Item item = center.get(a);
+
+			if(item instanceof ContinuousItem)
+				centerScaled[a] = ((ContinuousItem)item).getScaledValue();
+			else
+				centerValues[a] = item.getValue();
+		}
+	}
+
+	/**
+	 * Considera la riga ex (con le sue {@link Example#getCount()} occorrenze) per entrambi
+	 * i campioni.
+	 */
+	public void handle(Example ex)
+	{
+		long count = ex.getCount();
+		double dist = distance(ex);
+		long seq = rows++;
+
+		occurrences += count;
+		totalDistance += count * dist;
+
+		offer(uniform, new Sample(ex, seq, dist, key(count)));
+		if(dist > 0)
+			offer(distant, new Sample(ex, seq, dist, key(count * dist)));
+	}
+
+	/**
+	 * Ritorna le righe del coreset, nell'ordine in cui sono state lette. Il peso di ciascuna
+	 * riga (il numero di occorrenze della tabella che essa rappresenta) viene impostato con
+	 * {@link Example#setCount(long)}.
+	 *
+	 * @return Le righe del coreset
+	 */
+	List<Example> build()
+	{
+		Map<Long, Sample> samples = new HashMap<Long, Sample>();
+		boolean exact = rows <= capacity;
+
+		for(Sample s : uniform)
+			samples.put(s.seq, s);
+		if(!exact)
+			for(Sample s : distant)
+				samples.put(s.seq, s);
+
+		List<Long> order = new ArrayList<Long>(samples.keySet());
+		Collections.sort(order);
+
+		List<Example> res = new ArrayList<Example>();
+		for(Long seq : order){
+			Sample s = samples.get(seq);
+			// se la tabella e' contenuta per intero nel campione i pesi sono gia' esatti
+			if(!exact)
+				s.example.setCount(weight(s));
+			res.add(s.example);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Ritorna il numero di occorrenze lette (N).
+	 */
+	long getOccurrences()
+	{
+		return occurrences;
+	}
+
+	/**
+	 * Calcola il peso di una riga scelta: 1/(m &middot; q(x)), con m pari al numero complessivo
+	 * di righe dei due campioni, arrotondato e mai minore del numero di occorrenze della riga.
+	 */
+	private long weight(Sample s)
+	{
+		double q = 0.5 / occurrences + ((totalDistance > 0) ? 0.5 * s.dist / totalDistance : 0);
+
+		return Math.max(s.example.getCount(), Math.round(1 / (2.0 * capacity * q)));
+	}
+
+	/**
+	 * Calcola la chiave di estrazione di Efraimidis e Spirakis per una riga di peso w: il
+	 * logaritmo di u^(1/w), con u uniforme in (0, 1). Vengono mantenute le righe di chiave maggiore.
+	 */
+	private double key(double w)
+	{
+		return Math.log(1 - rand.nextDouble()) / w;
+	}
+
+	/**
+	 * Inserisce la riga nel campione se questo non &egrave pieno oppure se la sua chiave
+	 * supera la minore del campione, che viene scartata.
+	 */
+	private void offer(PriorityQueue<Sample> sample, Sample s)
+	{
+		if(sample.size() < capacity)
+			sample.add(s);
+		else if(sample.peek().key < s.key){
+			sample.poll();
+			sample.add(s);
+		}
+	}
+
+	/**
+	 * Calcola la distanza tra la riga ex e il centro, con la stessa definizione di
+	 * {@link Tuple#getDistance(Tuple)}.
+	 */
+	private double distance(Example ex)
+	{
+		double dist = 0;
+
+		for(int a = 0; a < centerValues.length; a++)
+			if(centerValues[a] != null && !centerValues[a].equals(ex.get(a)))
+				dist = dist + 1;
+		for(int a = 0; a < centerValues.length; a++)
+			if(centerValues[a] == null)
+				dist = dist + Math.abs(((ContinuousAttribute)attributeSet.get(a)).getScaledValue((Double)ex.get(a)) - centerScaled[a]);
+
+		return dist;
+	}
+
+	/**
+	 * Una riga letta con la sua chiave di estrazione.
+	 */
+	private static class Sample implements Comparable<Sample> {
+
+		/**
+		 * La riga.
+		 */
+		private Example example;
+
+		/**
+		 * Posizione della riga nella scansione.
+		 */
+		private long seq;
+
+		/**
+		 * Distanza della riga dal centro.
+		 */
+		private double dist;
+
+		/**
+		 * Chiave di estrazione.
+		 */
+		private double key;
+
+		Sample(Example example, long seq, double dist, double key)
+		{
+			this.example = example;
+			this.seq = seq;
+			this.dist = dist;
+			this.key = key;
+		}
+
+		public int compareTo(Sample other)
+		{
+			return Double.compare(key, other.key);
+		}
+	}
+}
@@ -5,10 +5,13 @@ import java.io.Serializable;
 import java.sql.SQLException;
 import java.util.*;
 
+import database.CancellationToken;
 import database.DBAccess;
 import database.DatabaseConnectionException;
 import database.EmptySetException;
 import database.Example;
+import database.ExampleHandler;
+import database.JobCancelledException;
 import database.NoValueException;
 import database.QUERY_TYPE;
 import database.TableData;
@@ -32,12 +35,26 @@ import database.TableSchema;
  * Le tuple che caratterizzeranno la tabella data sono univoche, quindi duplicati presenti
  * all'interno della base di dati verranno considerati una sola volta (migliorando cos&igrave le 
  * operazioni di scoperta dei cluster e rendendole pi&ugrave efficienti).<br>
+ * In alternativa la tabella pu&ograve essere caricata in forma raggruppata
+ * ({@link database.TableData#scanGroupedTransazioni(String, ExampleHandler)}): ciascuna riga
+ * distinta conserva come peso ({@link #getWeight(int)}) il numero delle sue occorrenze nella
+ * base di dati, e centroidi, obiettivo e dimensioni dei cluster vengono calcolati pesando
+ * ciascuna riga con tale numero, come se i duplicati fossero presenti.<br>
  * Quindi la tabella Data rappresenta tutti i dati che verranno utilizzati all'interno del sistema,
  * non a caso prima di effettuare qualsiasi operazione da parte del server, viene innanzitutto 
  * istanziato un oggetto di questa classe e i dati prodotti vengono resi disponibili per tutti 
  * le attivit&agrave del sistema (a meno che non sia un'attivit&agrave di
  * scoperta di cluster da file, in questo caso la tabbella data non &egrave istanziata e i cluster
  * sono ottenuto dal file).<br>
+ * Le tuple non sono memorizzate come oggetti {@link database.Example}, ma per colonne:
+ * un array di double per ciascun attributo continuo e un array di interi (codici del
+ * dominio) per ciascun attributo discreto. I metodi {@link #getAttributeValue(int, int)} e
+ * {@link #getItemSet(int)} costituiscono una vista di compatibilit&agrave su tali colonne;
+ * i cicli su tutte le righe utilizzano invece un cursore ({@link #cursor()}), che non crea
+ * oggetti per ciascuna riga.
+ * Al termine del caricamento vengono inoltre calcolati una sola volta i valori normalizzati
+ * delle colonne continue ({@link ContinuousAttribute#getScaledValue(double)}), utilizzati
+ * nel calcolo delle distanze e dei centroidi.<br>
  * Per ottenere correttamente i dati &grave necessario che all'atto dell'istanziazione della classe
  * sia specificato il nome della tabella, che coincide esattamente con quello della tabella contenuta
  * nella base di dati.<br>
@@ -55,22 +72,144 @@ import database.TableSchema;
 
 public class Data implements Serializable{
 
-	private List<Example> data;
 	private int numberOfExamples;
 	private List<Attribute> attributeSet;
 	private int distinctTuples;
 
-	public Data(String tableName, List<String> selectedValues) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException{
+	/**
+	 * Memorizzazione per colonne della tabella: per ciascun attributo continuo un array
+	 * di double con i valori delle tuple (null in corrispondenza degli attributi discreti).
+	 */
+	private double[][] continuousColumns;
+
+	/**
+	 * Per ciascun attributo discreto un array di interi contenente i codici
+	 * ({@link DiscreteAttribute#getCode(String)}) dei valori delle tuple
+	 * (null in corrispondenza degli attributi continui).
+	 */
+	private int[][] discreteColumns;
+
+	/**
+	 * Le colonne nella forma utilizzata dal calcolo delle distanze: valori continui
+	 * normalizzati ({@link ContinuousAttribute#getScaledValue(double)}) e codifica a bit dei
+	 * valori discreti. Vengono costruite una sola volta, al termine del caricamento.
+	 */
+	private DistanceColumns distanceColumns;
+
+	/**
+	 * Peso di ciascuna riga: il numero delle sue occorrenze nella tabella della base di dati
+	 * (null se tutte le righe hanno peso 1).
+	 */
+	private long[] weights;
+
+	/**
+	 * Somma dei pesi delle righe.
+	 */
+	private long totalWeight;
+
+	/**
+	 * Indica se la tabella &egrave un coreset della tabella della base di dati (vedi
+	 * {@link #Data(String, List, int, Random, CancellationToken)}) anzich&eacute la tabella intera.
+	 */
+	private boolean coreset;
+
+	/**
+	 * Capacit&agrave iniziale delle colonne durante il caricamento.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Carica dalla base di dati le tuple distinte della tabella tableName.<br>
+	 * Le interrogazioni vengono registrate presso il token: se il job viene annullato durante
+	 * il caricamento l'interrogazione in corso viene interrotta e il costruttore solleva
+	 * JobCancelledException.
+	 * 
+	 * @param tableName		 Nome della tabella
+	 * @param selectedValues Porta, userid e password di accesso alla base di dati
+	 * @param token			 Il token di annullamento del job
+	 * 
+	 * @throws JobCancelledException Se il job viene annullato durante il caricamento
+	 */
+	public Data(String tableName, List<String> selectedValues, CancellationToken token) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException, JobCancelledException{
+		this(tableName, selectedValues, false, token);
+	}
+
+	/**
+	 * Carica dalla base di dati le tuple della tabella tableName: se grouped &egrave vero
+	 * le tuple vengono raggruppate e ciascuna riga ha come peso il numero delle sue occorrenze
+	 * ({@link TableData#scanGroupedTransazioni(String, ExampleHandler)}), altrimenti vengono
+	 * caricate le tuple distinte, tutte di peso 1 (come in {@link #Data(String, List, CancellationToken)}).
+	 * 
+	 * @param tableName		 Nome della tabella
+	 * @param selectedValues Porta, userid e password di accesso alla base di dati
+	 * @param grouped		 Indica se caricare le tuple raggruppate con il numero di occorrenze
+	 * @param token			 Il token di annullamento del job
+	 * 
+	 * @throws JobCancelledException Se il job viene annullato durante il caricamento
+	 */
+	public Data(String tableName, List<String> selectedValues, boolean grouped, CancellationToken token) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException, JobCancelledException{
+		this(tableName, selectedValues, grouped, 0, null, token);
+	}
+
+	/**
+	 * Costruisce la tabella come coreset della tabella tableName (vedi {@link CoresetBuilder}):
+	 * la tabella della base di dati viene letta una sola volta in forma raggruppata e ne viene
+	 * mantenuto soltanto un campione di al pi&ugrave coresetSize righe, ciascuna pesata con il
+	 * numero di occorrenze che rappresenta ({@link #getWeight(int)}). La memoria occupata
+	 * dipende quindi da coresetSize e non dalla dimensione della tabella, e l'algoritmo k-means
+	 * eseguito sul coreset approssima quello eseguito sull'intera tabella.
+	 * 
+	 * @param tableName		 Nome della tabella
+	 * @param selectedValues Porta, userid e password di accesso alla base di dati
+	 * @param coresetSize	 Numero massimo di righe del coreset (almeno 2)
+	 * @param rand			 Il generatore di numeri casuali
+	 * @param token			 Il token di annullamento del job
+	 * 
+	 * @throws JobCancelledException	Se il job viene annullato durante il caricamento
+	 * @throws IllegalArgumentException Se coresetSize &egrave minore di 2
+	 */
+	public Data(String tableName, List<String> selectedValues, int coresetSize, Random rand, CancellationToken token) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException, JobCancelledException{
+		this(tableName, selectedValues, true, checkCoresetSize(coresetSize), rand, token);
+	}
+
+	/**
+	 * Carica la tabella tableName per intero (coresetSize pari a 0) oppure come coreset.
+	 */
+	private Data(String tableName, List<String> selectedValues, boolean grouped, int coresetSize, Random rand, CancellationToken token) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException, JobCancelledException{
+		try{
+			loadTable(tableName, selectedValues, grouped, coresetSize, rand, token);
+		} catch(SQLException e){
+			token.check();
+			throw e;
+		} catch(EmptySetException e){
+			token.check();
+			throw e;
+		}
+		token.check();
+	}
+
+	/**
+	 * Verifica la dimensione richiesta per un coreset.
+	 */
+	private static int checkCoresetSize(int coresetSize){
+		if(coresetSize < 2)
+			throw new IllegalArgumentException("Dimensione del coreset non valida: " + coresetSize);
+		return coresetSize;
+	}
+
+	/**
+	 * Legge lo schema della tabella (con gli estremi dei valori continui e i domini dei
+	 * valori discreti) e le sue tuple distinte (oppure raggruppate se grouped &egrave vero),
+	 * o un coreset di coresetSize righe se coresetSize &egrave maggiore di 0.
+	 */
+	private void loadTable(String tableName, List<String> selectedValues, boolean grouped, int coresetSize, Random rand, CancellationToken token) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException{
 		DBAccess dba = new DBAccess(selectedValues);
 		DBAccess.initConnection();
-		TableData tb = new TableData(dba);
+		TableData tb = new TableData(dba, token);
 
 		TableSchema tbs = new TableSchema(dba, tableName);
 
-
-		this.data = tb.getDistinctTransazioni(tableName);
-		this.numberOfExamples = this.data.size();
-		this.attributeSet = new LinkedList<Attribute>();
+		this.attributeSet = new ArrayList<Attribute>();
 
 		for(int i = 0; i < tbs.getNumberOfAttributes(); i++){
 			String ColName = tbs.getColumn(i).getColumnName();
@@ -92,20 +231,335 @@ public class Data implements Serializable{
 			}
 		}
 
-		distinctTuples = this.data.size();
+		coreset = coresetSize > 0;
+		if(coreset)
+			loadCoreset(tb, tbs, tableName, coresetSize, rand);
+		else
+			load(tb, tableName, grouped);
+
+		distinctTuples = this.numberOfExamples;
+		totalWeight = sumWeights();
+		distanceColumns = new DistanceColumns(attributeSet, continuousColumns, discreteColumns, numberOfExamples);
 
 	}
 
+	/**
+	 * Crea una tabella a partire da colonne gi&agrave presenti in memoria, senza accedere
+	 * alla base di dati (ad esempio per dati generati o per confrontare le varianti
+	 * dell'algoritmo).<br>
+	 * Gli array continuousColumns e discreteColumns hanno una cella per ciascun attributo:
+	 * la colonna di un attributo continuo contiene i valori, quella di un attributo discreto
+	 * i codici ({@link DiscreteAttribute#getCode(String)}); la cella dell'altro array vale null.
+	 * Le tuple si assumono distinte e hanno tutte peso 1.
+	 * 
+	 * @param attributeSet		Gli attributi della tabella
+	 * @param continuousColumns Le colonne degli attributi continui
+	 * @param discreteColumns	Le colonne degli attributi discreti
+	 * 
+	 * @throws IllegalArgumentException Se le colonne non corrispondono agli attributi
+	 * 									o non hanno tutte la stessa lunghezza
+	 */
+	public Data(List<Attribute> attributeSet, double[][] continuousColumns, int[][] discreteColumns){
+		this(attributeSet, continuousColumns, discreteColumns, null);
+	}
+
+	/**
+	 * Come {@link #Data(List, double[][], int[][])}, ma ciascuna riga ha come peso il
+	 * corrispondente elemento di weights (il numero di occorrenze della riga).
+	 * 
+	 * @param attributeSet		Gli attributi della tabella
+	 * @param continuousColumns Le colonne degli attributi continui
+	 * @param discreteColumns	Le colonne degli attributi discreti
+	 * @param weights			I pesi delle righe (oppure null se tutte le righe hanno peso 1)
+	 * 
+	 * @throws IllegalArgumentException Se le colonne non corrispondono agli attributi, non
+	 * 									hanno tutte la stessa lunghezza oppure se i pesi non
+	 * 									sono positivi o sono in numero diverso dalle righe
+	 */
+	public Data(List<Attribute> attributeSet, double[][] continuousColumns, int[][] discreteColumns, long[] weights){
+		int attrLen = attributeSet.size();
+
+		if(continuousColumns.length != attrLen || discreteColumns.length != attrLen)
+			throw new IllegalArgumentException("Numero di colonne diverso dal numero di attributi");
+
+		this.attributeSet = new ArrayList<Attribute>(attributeSet);
+		this.continuousColumns = continuousColumns;
+		this.discreteColumns = discreteColumns;
+		this.numberOfExamples = -1;
+
+		for(int i = 0; i < attrLen; i++){
+			int len;
+			if(attributeSet.get(i) instanceof ContinuousAttribute && continuousColumns[i] != null && discreteColumns[i] == null)
+				len = continuousColumns[i].length;
+			else if(attributeSet.get(i) instanceof DiscreteAttribute && discreteColumns[i] != null && continuousColumns[i] == null)
+				len = discreteColumns[i].length;
+			else
+				throw new IllegalArgumentException("Colonna non valida per l'attributo " + attributeSet.get(i));
+
+			if(numberOfExamples == -1)
+				numberOfExamples = len;
+			else if(len != numberOfExamples)
+				throw new IllegalArgumentException("Le colonne hanno lunghezze diverse");
+		}
+
+		if(numberOfExamples == -1)
+			numberOfExamples = 0;
+
+		if(weights != null){
+			if(weights.length != numberOfExamples)
+				throw new IllegalArgumentException("Numero di pesi diverso dal numero di righe");
+			for(long w : weights)
+				if(w < 1)
+					throw new IllegalArgumentException("Peso non valido: " + w);
+		}
+
+		this.weights = weights;
+		totalWeight = sumWeights();
+		distinctTuples = numberOfExamples;
+		distanceColumns = new DistanceColumns(this.attributeSet, continuousColumns, discreteColumns, numberOfExamples);
+	}
+
+	/**
+	 * Legge le tuple distinte della tabella e le memorizza per colonne. Le tuple vengono
+	 * consegnate una alla volta da {@link TableData#scanDistinctTransazioni(String, database.ExampleHandler)}
+	 * e copiate negli array primitivi, che crescono per raddoppio e vengono infine
+	 * ridimensionati al numero esatto di tuple. Se grouped &egrave vero le tuple vengono lette
+	 * con {@link TableData#scanGroupedTransazioni(String, database.ExampleHandler)} e il
+	 * numero di occorrenze di ciascuna viene memorizzato in {@link #weights}.
+	 */
+	private void load(TableData tb, String tableName, boolean grouped) throws SQLException, EmptySetException{
+		ExampleHandler handler = new ExampleHandler() {
+			public void handle(Example ex) {
+				appendRow(ex);
+			}
+		};
+
+		initColumns(grouped);
+
+		if(grouped)
+			tb.scanGroupedTransazioni(tableName, handler);
+		else
+			tb.scanDistinctTransazioni(tableName, handler);
+
+		trimColumns();
+	}
+
+	/**
+	 * Costruisce il coreset della tabella ({@link CoresetBuilder}) e ne memorizza le righe
+	 * per colonne, con i rispettivi pesi. Il centro approssimato utilizzato dal coreset
+	 * (media degli attributi continui e valore pi&ugrave frequente degli attributi discreti)
+	 * viene calcolato dalla base di dati con interrogazioni di aggregazione, prima dell'unica
+	 * scansione delle tuple.
+	 */
+	private void loadCoreset(TableData tb, TableSchema tbs, String tableName, int coresetSize, Random rand) throws SQLException, EmptySetException, NoValueException{
+		int attrLen = attributeSet.size();
+		Tuple center = new Tuple(attrLen);
+
+		for(int i = 0; i < attrLen; i++){
+			if(attributeSet.get(i) instanceof ContinuousAttribute){
+				double avg = ((Number)tb.getAggregateColumnValue(tableName, tbs.getColumn(i), QUERY_TYPE.AVG)).doubleValue();
+				center.add(new ContinuousItem(attributeSet.get(i), avg), i);
+			} else
+				center.add(new DiscreteItem((DiscreteAttribute)attributeSet.get(i), (String)tb.getMostFrequentColumnValue(tableName, tbs.getColumn(i))), i);
+		}
+
+		CoresetBuilder builder = new CoresetBuilder(attributeSet, center, coresetSize, rand);
+		tb.scanGroupedTransazioni(tableName, builder);
+
+		initColumns(true);
+		for(Example ex : builder.build())
+			appendRow(ex);
+		trimColumns();
+	}
+
+	/**
+	 * Crea le colonne vuote (con capacit&agrave {@link #INITIAL_CAPACITY}) in cui accodare
+	 * le righe lette e, se weighted &egrave vero, il vettore dei pesi.
+	 */
+	private void initColumns(boolean weighted){
+		int attrLen = attributeSet.size();
+
+		continuousColumns = new double[attrLen][];
+		discreteColumns = new int[attrLen][];
+
+		for(int i = 0; i < attrLen; i++){
+			if(attributeSet.get(i) instanceof ContinuousAttribute)
+				continuousColumns[i] = new double[INITIAL_CAPACITY];
+			else
+				discreteColumns[i] = new int[INITIAL_CAPACITY];
+		}
+
+		numberOfExamples = 0;
+		weights = weighted ? new long[INITIAL_CAPACITY] : null;
+	}
+
+	/**
+	 * Accoda la tupla ex alle colonne (e il suo numero di occorrenze ai pesi, se presenti),
+	 * raddoppiando la capacit&agrave degli array quando sono pieni.
+	 */
+	private void appendRow(Example ex){
+		int row = numberOfExamples;
+
+		if(weights != null){
+			if(row == weights.length)
+				weights = Arrays.copyOf(weights, 2 * row);
+			weights[row] = ex.getCount();
+		}
+
+		for(int i = 0; i < attributeSet.size(); i++){
+			if(continuousColumns[i] != null){
+				if(row == continuousColumns[i].length)
+					continuousColumns[i] = Arrays.copyOf(continuousColumns[i], 2 * row);
+				continuousColumns[i][row] = (Double)ex.get(i);
+			} else {
+				if(row == discreteColumns[i].length)
+					discreteColumns[i] = Arrays.copyOf(discreteColumns[i], 2 * row);
+				discreteColumns[i][row] = ((DiscreteAttribute)attributeSet.get(i)).getCode((String)ex.get(i));
+			}
+		}
+
+		numberOfExamples++;
+	}
+
+	/**
+	 * Ridimensiona le colonne (e i pesi) al numero esatto di righe lette.
+	 */
+	private void trimColumns(){
+		if(weights != null)
+			weights = Arrays.copyOf(weights, numberOfExamples);
+		for(int i = 0; i < attributeSet.size(); i++){
+			if(continuousColumns[i] != null)
+				continuousColumns[i] = Arrays.copyOf(continuousColumns[i], numberOfExamples);
+			else
+				discreteColumns[i] = Arrays.copyOf(discreteColumns[i], numberOfExamples);
+		}
+	}
+
 	public int getNumberOfExamples(){
 		return this.numberOfExamples;
 	}
 
+	/**
+	 * Ritorna il peso della riga di indice exampleIndex: il numero delle sue occorrenze nella
+	 * tabella se la tabella &egrave stata caricata in forma raggruppata, 1 altrimenti.
+	 */
+	public long getWeight(int exampleIndex){
+		return (weights == null) ? 1 : weights[exampleIndex];
+	}
+
+	/**
+	 * Ritorna la somma dei pesi delle righe, ovvero il numero di tuple rappresentate
+	 * dalla tabella (duplicati compresi se la tabella &egrave stata caricata in forma raggruppata).
+	 */
+	public long getTotalWeight(){
+		return totalWeight;
+	}
+
+	/**
+	 * Ritorna true se le righe della tabella hanno pesi diversi da 1.
+	 */
+	public boolean isWeighted(){
+		return weights != null;
+	}
+
+	/**
+	 * Ritorna true se la tabella &egrave un coreset della tabella della base di dati: le sue
+	 * righe sono un campione pesato e non tutte le tuple della tabella.
+	 */
+	public boolean isCoreset(){
+		return coreset;
+	}
+
+	/**
+	 * Calcola la somma dei pesi delle righe.
+	 */
+	private long sumWeights(){
+		if(weights == null)
+			return numberOfExamples;
+
+		long sum = 0;
+		for(long w : weights)
+			sum += w;
+		return sum;
+	}
+
 	public int getNumberOfExplanatorySet(){
 		return this.attributeSet.size();
 	}
 
+	/**
+	 * Vista di compatibilit&agrave sulla memorizzazione per colonne: ritorna un Double
+	 * per gli attributi continui e la stringa decodificata per gli attributi discreti.
+	 */
 	public Object getAttributeValue(int exampleIndex, int attributeIndex){
-		return this.data.get(exampleIndex).get(attributeIndex);
+		if(continuousColumns[attributeIndex] != null)
+			return continuousColumns[attributeIndex][exampleIndex];
+		else
+			return ((DiscreteAttribute)attributeSet.get(attributeIndex)).getValue(discreteColumns[attributeIndex][exampleIndex]);
+	}
+
+	/**
+	 * Ritorna il valore (non boxed) dell'attributo continuo di indice attributeIndex
+	 * per la tupla di indice exampleIndex.
+	 */
+	public double getContinuousValue(int exampleIndex, int attributeIndex){
+		return continuousColumns[attributeIndex][exampleIndex];
+	}
+
+	/**
+	 * Ritorna il valore normalizzato ({@link ContinuousAttribute#getScaledValue(double)})
+	 * dell'attributo continuo di indice attributeIndex per la tupla di indice exampleIndex.
+	 */
+	public double getScaledValue(int exampleIndex, int attributeIndex){
+		return distanceColumns.scaled[attributeIndex][exampleIndex];
+	}
+
+	/**
+	 * Ritorna il codice del valore dell'attributo discreto di indice attributeIndex
+	 * per la tupla di indice exampleIndex.
+	 */
+	public int getDiscreteCode(int exampleIndex, int attributeIndex){
+		return discreteColumns[attributeIndex][exampleIndex];
+	}
+
+	/**
+	 * Codifica la tupla t per il calcolo delle distanze per colonne.
+	 *
+	 * @param t La tupla da codificare (con gli attributi di questa tabella)
+	 *
+	 * @return La tupla codificata
+	 * @see #distances(EncodedTuple, int, int, double[])
+	 */
+	public EncodedTuple encode(Tuple t){
+		return new EncodedTuple(distanceColumns, t);
+	}
+
+	/**
+	 * Calcola la distanza tra la tupla t e ciascuna delle righe da from (inclusa) a to
+	 * (esclusa), scrivendo in dist[j] la distanza dalla riga from + j.<br>
+	 * Il risultato coincide con quello di {@link Tuple#getDistance(Tuple)} applicato alla
+	 * tupla della riga ({@link #getItemSet(int)}), ma le righe vengono elaborate a blocchi e
+	 * un attributo alla volta, senza creare tuple n&eacute confrontare stringhe: i valori
+	 * continui sono gi&agrave scalati e i valori discreti vengono confrontati attraverso la
+	 * codifica a bit descritta in {@link DistanceColumns}.
+	 *
+	 * @param t	   La tupla codificata ({@link #encode(Tuple)})
+	 * @param from Prima riga (inclusa)
+	 * @param to   Ultima riga (esclusa)
+	 * @param dist Il vettore in cui scrivere le distanze (almeno to - from celle)
+	 */
+	public void distances(EncodedTuple t, int from, int to, double[] dist){
+		distanceColumns.distances(t, from, to, dist);
+	}
+
+	/**
+	 * Crea un cursore sulle righe della tabella, che consente di leggerne i valori e di
+	 * calcolarne le distanze senza creare una {@link Tuple} per ciascuna riga.
+	 *
+	 * @return Un nuovo cursore, posizionato sulla prima riga
+	 */
+	public RowCursor cursor(){
+		return new RowCursor(this, distanceColumns);
 	}
 
 	public Attribute getAttributeSchema(int index){
@@ -118,24 +572,108 @@ public class Data implements Serializable{
 
 		for(int i=0; i<attributeSet.size(); i++)
 		{
-			if(data.get(index).get(i) instanceof Double)
-				tuple.add(new ContinuousItem((ContinuousAttribute)attributeSet.get(i), (Double)data.get(index).get(i)), i);
+			if(continuousColumns[i] != null)
+				tuple.add(new ContinuousItem((ContinuousAttribute)attributeSet.get(i), continuousColumns[i][index], distanceColumns.scaled[i][index]), i);
 			else
-				tuple.add(new DiscreteItem((DiscreteAttribute)attributeSet.get(i), (String)data.get(index).get(i)), i);
+				tuple.add(new DiscreteItem((DiscreteAttribute)attributeSet.get(i), (String)getAttributeValue(index, i)), i);
 		}
 
 		return tuple;
 	}
 
-	public int[] sampling(int k) throws OutOfRangeSampleSize{
-		int centroidIndexes[]=new int[k];
-		//choose k random different centroids in data.
+	/**
+	 * Crea la tupla corrispondente alla transazione ex letta dalla base di dati, con gli
+	 * attributi di questa tabella (ad esempio per confrontare con i centroidi righe che non
+	 * sono memorizzate nella tabella, come quelle escluse da un coreset).
+	 *
+	 * @param ex La transazione (con i valori nell'ordine degli attributi della tabella)
+	 *
+	 * @return La tupla
+	 */
+	public Tuple getItemSet(Example ex){
 
+		Tuple tuple = new Tuple(attributeSet.size());
+
+		for(int i=0; i<attributeSet.size(); i++)
+		{
+			if(attributeSet.get(i) instanceof ContinuousAttribute)
+				tuple.add(new ContinuousItem(attributeSet.get(i), (Double)ex.get(i)), i);
+			else
+				tuple.add(new DiscreteItem((DiscreteAttribute)attributeSet.get(i), (String)ex.get(i)), i);
+		}
+
+		return tuple;
+	}
+
+	/**
+	 * Crea una tabella con size righe di questa scelte a caso (con uguale probabilit&agrave e
+	 * senza ripetizioni), nello stesso ordine e con gli stessi attributi e pesi. I valori
+	 * normalizzati delle righe scelte coincidono quindi con quelli di questa tabella.
+	 *
+	 * @param size Numero di righe da scegliere
+	 * @param rand Il generatore di numeri casuali
+	 *
+	 * @return La tabella campione
+	 * @throws IllegalArgumentException Se size non &egrave compreso tra 1 e il numero di righe
+	 */
+	public Data sample(int size, Random rand){
+		if(size < 1 || size > numberOfExamples)
+			throw new IllegalArgumentException("Dimensione del campione non valida: " + size);
+
+		int attrLen = attributeSet.size();
+		double[][] cc = new double[attrLen][];
+		int[][] dc = new int[attrLen][];
+		long[] w = (weights != null) ? new long[size] : null;
+
+		for(int i = 0; i < attrLen; i++){
+			if(continuousColumns[i] != null)
+				cc[i] = new double[size];
+			else
+				dc[i] = new int[size];
+		}
+
+		// scelta sequenziale: la riga viene presa con probabilita' (righe da scegliere) / (righe rimaste)
+		int taken = 0;
+		for(int row = 0; row < numberOfExamples && taken < size; row++){
+			if(rand.nextInt(numberOfExamples - row) >= size - taken)
+				continue;
+
+			for(int i = 0; i < attrLen; i++){
+				if(cc[i] != null)
+					cc[i][taken] = continuousColumns[i][row];
+				else
+					dc[i][taken] = discreteColumns[i][row];
+			}
+			if(w != null)
+				w[taken] = weights[row];
+			taken++;
+		}
+
+		return new Data(attributeSet, cc, dc, w);
+	}
+
+	public int[] sampling(int k) throws OutOfRangeSampleSize{
 		Random rand=new Random();
 		rand.setSeed(System.currentTimeMillis());
 
-		if(k <= 0 || k > this.distinctTuples)	
-			throw new OutOfRangeSampleSize("Errore! - Numero di iterate inserito non valido!\nIntervallo valori accettati per k: 1 - " + this.distinctTuples);
+		return sampling(k, rand);
+	}
+
+	/**
+	 * Sceglie k righe distinte a caso utilizzando il generatore rand (che pu&ograve essere
+	 * inizializzato con un seme fissato per ottenere esecuzioni ripetibili).
+	 *
+	 * @param k	   Numero di righe da scegliere
+	 * @param rand Il generatore di numeri casuali
+	 *
+	 * @return Gli indici delle righe scelte
+	 * @throws OutOfRangeSampleSize Se k non &egrave compreso tra 1 e il numero di tuple distinte
+	 */
+	public int[] sampling(int k, Random rand) throws OutOfRangeSampleSize{
+		int centroidIndexes[]=new int[k];
+		//choose k random different centroids in data.
+
+		checkSampleSize(k);
 		{
 			for (int i=0; i<k; i++){
 				boolean found=false;
@@ -159,25 +697,32 @@ public class Data implements Serializable{
 		return centroidIndexes;
 	}
 
-	private boolean compare(int i,int j){
-		int ind = 0;
-		boolean cond = true;
-		Object first = new Object();
-		Object sec = new Object();
+	/**
+	 * Verifica che sia possibile scegliere k centroidi distinti dalla tabella.
+	 *
+	 * @param k Numero di centroidi
+	 *
+	 * @throws OutOfRangeSampleSize Se k non &egrave compreso tra 1 e il numero di tuple distinte
+	 */
+	public void checkSampleSize(int k) throws OutOfRangeSampleSize{
+		if(k <= 0 || k > this.distinctTuples)
+			throw new OutOfRangeSampleSize("Errore! - Numero di iterate inserito non valido!\nIntervallo valori accettati per k: 1 - " + this.distinctTuples);
+	}
 
-		while(cond && ind < getNumberOfExplanatorySet()){
-			first = getAttributeValue(i,ind);
-			sec = getAttributeValue(j,ind);
-			if(!first.equals(sec))
-				cond = false;
-			ind++;
+	private boolean compare(int i,int j){
+		for(int ind = 0; ind < getNumberOfExplanatorySet(); ind++){
+			if(continuousColumns[ind] != null){
+				if(continuousColumns[ind][i] != continuousColumns[ind][j])
+					return false;
+			} else if(discreteColumns[ind][i] != discreteColumns[ind][j])
+				return false;
 		}
 
-		return cond;
+		return true;
 
 	}
 
-	Object computePrototype(Set<Integer> idList, Attribute attribute){
+	Object computePrototype(int[] idList, Attribute attribute){
 
 		if(attribute instanceof DiscreteAttribute)
 			return computePrototype(idList, (DiscreteAttribute)attribute);
@@ -186,31 +731,45 @@ public class Data implements Serializable{
 
 	}
 
-	String  computePrototype(Set<Integer> idList, DiscreteAttribute attribute)
+	String  computePrototype(int[] idList, DiscreteAttribute attribute)
 	{
-		int maxFreq = 0, attrFreq = 0; 
+		int[] column = discreteColumns[attribute.getIndex()];
+		long[] freq = new long[attribute.getNumberOfDistinctValues()];
+		long maxFreq = 0;
 		String prot = new String();
 
-		for(String val : attribute)
-		{
-			attrFreq = attribute.frequency(this, idList, val);
+		for(int val : idList)
+			freq[column[val]] += getWeight(val);
 
-			if(maxFreq < attrFreq){
-				maxFreq = attrFreq;
-				prot = val;
+		// a parita' di frequenza prevale il primo valore in ordine lessicografico
+		for(int code = 0; code < freq.length; code++)
+		{
+			if(maxFreq < freq[code]){
+				maxFreq = freq[code];
+				prot = attribute.getValue(code);
 			}
 		}
 		return prot;
 	}
 
-	Double computePrototype(Set<Integer> idList, ContinuousAttribute attribute){
+	/**
+	 * Calcola la media (pesata con i pesi delle righe) dei valori normalizzati dell'attributo
+	 * continuo per le righe idList: i centroidi sono rappresentati nello spazio normalizzato
+	 * (vedi {@link ContinuousItem}).
+	 */
+	Double computePrototype(int[] idList, ContinuousAttribute attribute){
+		double[] column = distanceColumns.scaled[attribute.getIndex()];
 		double sum = 0.0;
 		double media = 0.0;
+		long weight = 0;
 
-		for(Integer val : idList)
-			sum = sum + (Double)(data.get(val).get(1));
+		for(int val : idList){
+			long w = getWeight(val);
+			sum = sum + w * column[val];
+			weight += w;
+		}
 
-		media = sum/idList.size();
+		media = sum/weight;
 
 		return media;
 	}
@@ -233,8 +792,8 @@ public class Data implements Serializable{
 		for(i = 1; i <= getNumberOfExamples(); i++){
 			schema = schema + i + ": ";
 
-			for(j = 0; j < 5; j++){
-				schema = schema + data.get(i-1).get(j) + ", ";
+			for(j = 0; j < getNumberOfExplanatorySet(); j++){
+				schema = schema + getAttributeValue(i-1, j) + ", ";
 			}
 
 			schema = schema + "\n";
@@ -243,12 +802,12 @@ public class Data implements Serializable{
 		return schema;
 	}
 	
-	public static void main(String[] args) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException{
+	public static void main(String[] args) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, NoValueException, JobCancelledException{
 		List<String> val = new ArrayList<String>();
 		val.add("8889");
 		val.add("root");
 		val.add("root");
-		Data res = new Data("playtennis", val);
+		Data res = new Data("playtennis", val, new CancellationToken());
 		System.out.println(res);
 	}
 }
\ No newline at end of file
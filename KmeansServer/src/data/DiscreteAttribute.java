@@ -1,7 +1,7 @@
 package data;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Set;
 import java.util.TreeSet;
 
 /**
@@ -22,6 +22,13 @@ public class DiscreteAttribute extends Attribute implements Iterable<String> {
 	 */
 	private TreeSet<String> values;
 	
+	/**
+	 * Gli stessi valori di {@link #values} memorizzati in un array ordinato.<br>
+	 * La posizione di un valore all'interno dell'array costituisce il suo codice (dizionario),
+	 * utilizzato da {@link Data} per memorizzare la colonna dell'attributo come array di interi.
+	 */
+	private String[] dictionary;
+	
 	/**
 	 * Il costruttore invoca anzitutto il costruttore della classe madre e inizializza 
 	 * un attributo discreto specificando il nome dell'attributo, l'identificativo numerico 
@@ -39,6 +46,7 @@ public class DiscreteAttribute extends Attribute implements Iterable<String> {
 		super(name, index);
 		
 		this.values = values;
+		this.dictionary = values.toArray(new String[values.size()]);
 	}
 	
 	/**
@@ -64,6 +72,36 @@ public class DiscreteAttribute extends Attribute implements Iterable<String> {
 		return this.values.iterator();
 	}
 	
+	/**
+	 * Ritorna il codice associato al valore specificato, ovvero la sua posizione
+	 * all'interno del dominio ordinato dell'attributo.
+	 * 
+	 * @param v Valore di cui ottenere il codice
+	 * 
+	 * @return Codice del valore oppure un valore negativo se v non appartiene al dominio
+	 */
+	
+	public int getCode(String v)
+	{
+		return Arrays.binarySearch(this.dictionary, v);
+	}
+	
+	/**
+	 * Ritorna il valore del dominio associato al codice specificato.
+	 * 
+	 * @param code Codice del valore (vedi {@link #getCode(String)})
+	 * 
+	 * @return Valore corrispondente al codice oppure null se il codice non &egrave valido
+	 */
+	
+	public String getValue(int code)
+	{
+		if(code < 0 || code >= this.dictionary.length)
+			return null;
+		
+		return this.dictionary[code];
+	}
+	
 	/**
 	 * Determina il numero di volte che il valore v compare in corrispondenza dell'attributo 
 	 * corrente (indice di colonna) negli esempi memorizzati in data e indicizzate (per riga) 
@@ -71,19 +109,20 @@ public class DiscreteAttribute extends Attribute implements Iterable<String> {
 	 * 
 	 * @param data 		Riferimento ad un oggetto istanza della classe Data
 	 * 					che rappresenta la tabella in cui effettuare il calcolo
-	 * @param idList	Paramentro di tipo Set indicante l'insieme di alcuni indici di riga 
+	 * @param idList	Array di interi indicante l'insieme di alcuni indici di riga 
 	 * 					per cui effettuare il calcolo
 	 * @param v			Valore di cui calcolare la frequenza in corrispondenza degli
 	 * 					indici di riga idList e la corrispondente colonna dell'attributo
 	 * 					corrente.
 	 */
 	
-	int frequency(Data data, Set idList, String v)
+	int frequency(Data data, int[] idList, String v)
 	{
 		int freq = 0, attrbIndex = this.getIndex();
+		int code = getCode(v);
 		
-		for(Object o : idList)
-			if(v.equals(data.getAttributeValue((Integer)o, attrbIndex)))
+		for(int o : idList)
+			if(data.getDiscreteCode(o, attrbIndex) == code)
 				freq++;
 		
 		return freq;	
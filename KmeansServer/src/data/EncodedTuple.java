@@ -0,0 +1,76 @@
+package data;
+
+/**
+ * La classe rappresenta una tupla (tipicamente un centroide) nella forma utilizzata dal
+ * calcolo delle distanze per colonne ({@link Data#distances(EncodedTuple, int, int, double[])}):
+ * per ciascun attributo continuo il valore normalizzato dell'item
+ * ({@link ContinuousItem#getScaledValue()}) e per gli attributi discreti la stessa
+ * codifica delle righe della tabella (vedi {@link DistanceColumns}): le parole della codifica
+ * a bit e, per gli attributi con domini pi&ugrave ampi, i codici dei valori
+ * ({@link DiscreteAttribute#getCode(String)}).<br>
+ * La codifica va ripetuta ogni volta che la tupla di partenza viene modificata.
+ *
+ * @author Luca Suriano
+ * @see Data#encode(Tuple)
+ */
+
+public class EncodedTuple {
+
+	/**
+	 * Valori scalati degli attributi continui (0 in corrispondenza degli attributi discreti).
+	 */
+	final double[] values;
+
+	/**
+	 * Codici dei valori degli attributi discreti non codificati a bit (0 altrove).
+	 */
+	final int[] codes;
+
+	/**
+	 * Parole della codifica a bit degli attributi discreti.
+	 */
+	final long[] bits;
+
+	/**
+	 * Numero di attributi codificati a bit il cui valore non appartiene al dominio: il
+	 * loro campo non ha bit impostati e differisce da quello di ogni riga di un solo bit.
+	 */
+	final int missing;
+
+	/**
+	 * Codifica la tupla t con la codifica delle colonne columns.
+	 *
+	 * @param columns Le colonne della tabella
+	 * @param t		  La tupla da codificare
+	 */
+	EncodedTuple(DistanceColumns columns, Tuple t)
+	{
+		int attrLen = t.getLength();
+		int outside = 0;
+
+		values = new double[attrLen];
+		codes = new int[attrLen];
+		bits = new long[columns.words.length];
+
+		for(int a = 0; a < attrLen; a++){
+			Item item = t.get(a);
+
+			if(item instanceof ContinuousItem)
+				values[a] = ((ContinuousItem)item).getScaledValue();
+			else {
+				int code = ((DiscreteAttribute)item.getAttribute()).getCode((String)item.getValue());
+
+				if(columns.bitOffsets[a] < 0)
+					codes[a] = code;
+				else if(code < 0)
+					outside++;
+				else {
+					int bit = columns.bitOffsets[a] + code;
+					bits[bit >>> 6] |= 1L << bit;
+				}
+			}
+		}
+
+		missing = outside;
+	}
+}
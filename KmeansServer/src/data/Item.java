@@ -1,7 +1,6 @@
 package data;
 
 import java.io.Serializable;
-import java.util.Set;
 
 /**
  * La classe astratta Item modella un generico item (coppia attributo-valore, 
@@ -81,14 +80,14 @@ public abstract class Item implements Serializable {
 	
 	/**
 	 * Il metodo modifica il membro value, assegnandogli il valore
-	 * restituito da {@link Data#computePrototype(Set, Attribute)}
+	 * restituito da {@link Data#computePrototype(int[], Attribute)}
 	 * 
 	 * @param data 			Riferimento ad un oggetto della classe Data
-	 * @param clusteredData Insieme di indici delle righe della matrice in data 
-	 * 						che formano i lcluster
+	 * @param clusteredData Indici delle righe della matrice in data 
+	 * 						che formano il cluster
 	 */
 	
-	public void update(Data data, Set clusteredData)
+	public void update(Data data, int[] clusteredData)
 	{
 		this.value = data.computePrototype(clusteredData, attribute);
 	}
@@ -0,0 +1,139 @@
+package data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * La classe modella lo stato dei centroidi di k cluster nella variante mini-batch
+ * dell'algoritmo k-means.<br>
+ * Ciascun centroide ha un proprio tasso di apprendimento, pari all'inverso del numero di
+ * righe che gli sono state assegnate fino a quel momento (ciascuna contata con il proprio peso
+ * {@link Data#getWeight(int)}, cio&egrave come se le sue occorrenze fossero assegnate
+ * consecutivamente): quando una riga viene assegnata
+ * al cluster c con tasso eta, il valore di ciascun attributo continuo del centroide si sposta
+ * verso quello della riga ((1 - eta) &middot; centroide + eta &middot; riga) e le frequenze
+ * dei valori di ciascun attributo discreto vengono attenuate del fattore (1 - eta) prima di
+ * aggiungere eta al valore della riga. Il valore discreto del centroide &egrave quello di
+ * frequenza (attenuata) massima.
+ *
+ * @author Luca Suriano
+ * @see PrototypeAccumulator
+ * @see Tuple
+ */
+
+public class MiniBatchAccumulator implements Serializable {
+
+	/**
+	 * Numero di righe (somma dei pesi) assegnate a ciascun centroide.
+	 */
+	private long[] counts;
+
+	/**
+	 * Valori dei centroidi: values[c][a] &egrave il valore normalizzato dell'attributo continuo a nel
+	 * centroide c (null in corrispondenza degli attributi discreti).
+	 */
+	private double[][] values;
+
+	/**
+	 * Frequenze attenuate: freq[c][a][v] &egrave il peso del valore di codice v
+	 * dell'attributo discreto a nel centroide c (null in corrispondenza degli attributi continui).
+	 */
+	private double[][][] freq;
+
+	/**
+	 * Crea lo stato per k centroidi sulla tabella data. I centroidi vanno impostati con
+	 * {@link #init(int, Tuple)}.
+	 *
+	 * @param data La tabella
+	 * @param k	   Numero di centroidi
+	 */
+	public MiniBatchAccumulator(Data data, int k)
+	{
+		int attrLen = data.getNumberOfExplanatorySet();
+
+		counts = new long[k];
+		values = new double[k][];
+		freq = new double[k][attrLen][];
+
+		for(int c = 0; c < k; c++){
+			values[c] = new double[attrLen];
+			for(int a = 0; a < attrLen; a++)
+				if(data.getAttributeSchema(a) instanceof DiscreteAttribute)
+					freq[c][a] = new double[((DiscreteAttribute)data.getAttributeSchema(a)).getNumberOfDistinctValues()];
+		}
+	}
+
+	/**
+	 * Imposta lo stato iniziale del centroide c a partire dalla tupla centroid.
+	 *
+	 * @param c		   Indice del centroide
+	 * @param centroid Il centroide iniziale
+	 */
+	public void init(int c, Tuple centroid)
+	{
+		counts[c] = 0;
+
+		for(int a = 0; a < centroid.getLength(); a++){
+			Item item = centroid.get(a);
+
+			if(freq[c][a] != null){
+				Arrays.fill(freq[c][a], 0);
+				freq[c][a][((DiscreteAttribute)item.getAttribute()).getCode((String)item.getValue())] = 1;
+			} else
+				values[c][a] = ((ContinuousItem)item).getScaledValue();
+		}
+	}
+
+	/**
+	 * Sposta il centroide c verso la riga row, con tasso di apprendimento pari al peso della
+	 * riga diviso il numero di righe (somma dei pesi) assegnate al centroide.
+	 *
+	 * @param data La tabella
+	 * @param row  Indice della riga
+	 * @param c	   Indice del centroide
+	 */
+	public void update(Data data, int row, int c)
+	{
+		long w = data.getWeight(row);
+		double eta = (double)w / (counts[c] += w);
+		double[][] f = freq[c];
+		double[] v = values[c];
+
+		for(int a = 0; a < f.length; a++){
+			if(f[a] != null){
+				double[] fa = f[a];
+				for(int j = 0; j < fa.length; j++)
+					fa[j] *= 1 - eta;
+				fa[data.getDiscreteCode(row, a)] += eta;
+			} else
+				v[a] += eta * (data.getScaledValue(row, a) - v[a]);
+		}
+	}
+
+	/**
+	 * Riporta lo stato del centroide c nella tupla centroid: i valori continui vengono
+	 * copiati, quelli discreti sono i valori di frequenza attenuata massima (a parit&agrave
+	 * di frequenza quello che precede in ordine lessicografico).
+	 *
+	 * @param c		   Indice del centroide
+	 * @param centroid La tupla da aggiornare
+	 */
+	public void updatePrototype(int c, Tuple centroid)
+	{
+		for(int a = 0; a < centroid.getLength(); a++){
+			Item item = centroid.get(a);
+
+			if(freq[c][a] != null){
+				double[] f = freq[c][a];
+				int mode = 0;
+
+				for(int v = 1; v < f.length; v++)
+					if(f[mode] < f[v])
+						mode = v;
+
+				item.value = ((DiscreteAttribute)item.getAttribute()).getValue(mode);
+			} else
+				((ContinuousItem)item).setScaledValue(values[c][a]);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package data;
+
+import java.io.Serializable;
+
+/**
+ * La classe modella gli aggregati necessari al calcolo dei centroidi di k cluster a partire
+ * dalle righe di una tabella {@link Data}.<br>
+ * Per ciascun cluster vengono mantenuti il numero di righe, la somma dei valori di ciascun
+ * attributo continuo e la tabella delle frequenze dei valori (codici) di ciascun attributo
+ * discreto. Ciascuna riga contribuisce con il proprio peso ({@link Data#getWeight(int)}),
+ * per cui conteggi, somme e frequenze tengono conto delle occorrenze ripetute. In questo modo i centroidi di tutti i cluster possono essere calcolati con un'unica
+ * scansione della tabella invece di una scansione per ciascun cluster e attributo
+ * (vedi {@link Data#computePrototype(int[], Attribute)}).<br>
+ * Pi&ugrave accumulatori parziali, costruiti da thread diversi su porzioni disgiunte della
+ * tabella, possono essere fusi con il metodo {@link #merge(PrototypeAccumulator)}.<br>
+ * Gli aggregati possono inoltre essere mantenuti in modo incrementale: quando una riga cambia
+ * cluster &egrave sufficiente rimuoverla dagli aggregati del vecchio cluster
+ * ({@link #remove(Data, int, int)}) e aggiungerla a quelli del nuovo ({@link #add(Data, int, int)}).
+ * 
+ * @author Luca Suriano
+ * @see Data
+ * @see Tuple
+ */
+
+public class PrototypeAccumulator implements Serializable {
+	
+	/**
+	 * Numero di righe (somma dei pesi) accumulate per ciascun cluster.
+	 */
+	private long[] counts;
+	
+	/**
+	 * Somme dei valori: sums[c][a] &egrave la somma pesata dei valori normalizzati dell'attributo
+	 * continuo a sulle righe del cluster c (null in corrispondenza degli attributi discreti).
+	 */
+	private double[][] sums;
+	
+	/**
+	 * Frequenze dei valori: freq[c][a][v] &egrave il peso totale delle righe del cluster c in cui
+	 * l'attributo discreto a assume il valore di codice v (null in corrispondenza degli
+	 * attributi continui).
+	 */
+	private long[][][] freq;
+	
+	/**
+	 * Crea un accumulatore vuoto per k cluster sullo schema della tabella specificata.
+	 * 
+	 * @param data La tabella di cui verranno accumulate le righe
+	 * @param k	   Numero di cluster
+	 */
+	public PrototypeAccumulator(Data data, int k)
+	{
+		int attrLen = data.getNumberOfExplanatorySet();
+		
+		counts = new long[k];
+		sums = new double[k][attrLen];
+		freq = new long[k][attrLen][];
+		
+		for(int c = 0; c < k; c++)
+			for(int a = 0; a < attrLen; a++)
+				if(data.getAttributeSchema(a) instanceof DiscreteAttribute)
+					freq[c][a] = new long[((DiscreteAttribute)data.getAttributeSchema(a)).getNumberOfDistinctValues()];
+	}
+	
+	/**
+	 * Aggiunge la riga row della tabella agli aggregati del cluster c.
+	 * 
+	 * @param data La tabella
+	 * @param row  Indice della riga
+	 * @param c	   Indice del cluster
+	 */
+	public void add(Data data, int row, int c)
+	{
+		long[][] f = freq[c];
+		double[] s = sums[c];
+		long w = data.getWeight(row);
+		
+		counts[c] += w;
+		for(int a = 0; a < f.length; a++){
+			if(f[a] != null)
+				f[a][data.getDiscreteCode(row, a)] += w;
+			else
+				s[a] += w * data.getScaledValue(row, a);
+		}
+	}
+	
+	/**
+	 * Rimuove la riga row della tabella dagli aggregati del cluster c. La riga deve
+	 * essere stata precedentemente aggiunta allo stesso cluster.
+	 * 
+	 * @param data La tabella
+	 * @param row  Indice della riga
+	 * @param c	   Indice del cluster
+	 */
+	public void remove(Data data, int row, int c)
+	{
+		long[][] f = freq[c];
+		double[] s = sums[c];
+		long w = data.getWeight(row);
+		
+		counts[c] -= w;
+		for(int a = 0; a < f.length; a++){
+			if(f[a] != null)
+				f[a][data.getDiscreteCode(row, a)] -= w;
+			else
+				s[a] -= w * data.getScaledValue(row, a);
+		}
+	}
+	
+	/**
+	 * Somma agli aggregati correnti quelli dell'accumulatore specificato.
+	 * 
+	 * @param other Accumulatore parziale costruito sulla stessa tabella e sullo stesso numero di cluster
+	 */
+	public void merge(PrototypeAccumulator other)
+	{
+		for(int c = 0; c < counts.length; c++){
+			counts[c] += other.counts[c];
+			
+			for(int a = 0; a < sums[c].length; a++){
+				if(freq[c][a] != null){
+					for(int v = 0; v < freq[c][a].length; v++)
+						freq[c][a][v] += other.freq[c][a][v];
+				} else
+					sums[c][a] += other.sums[c][a];
+			}
+		}
+	}
+	
+	/**
+	 * Ritorna il numero di righe (somma dei pesi) accumulate per il cluster c.
+	 * 
+	 * @param c Indice del cluster
+	 */
+	public long getCount(int c)
+	{
+		return counts[c];
+	}
+	
+	/**
+	 * Aggiorna gli item del centroide con il prototipo del cluster c: la media pesata dei valori
+	 * normalizzati per gli attributi continui e il valore pi&ugrave frequente per gli attributi discreti
+	 * (a parit&agrave di frequenza prevale il primo valore in ordine lessicografico, come in
+	 * {@link Data#computePrototype(int[], DiscreteAttribute)}).<br>
+	 * Se il cluster non contiene righe il centroide non viene modificato.
+	 * 
+	 * @param c		   Indice del cluster
+	 * @param centroid Centroide del cluster da aggiornare
+	 */
+	public void updatePrototype(int c, Tuple centroid)
+	{
+		if(counts[c] == 0)
+			return;
+		
+		for(int a = 0; a < centroid.getLength(); a++){
+			Item item = centroid.get(a);
+			
+			if(freq[c][a] != null){
+				long[] f = freq[c][a];
+				int mode = 0;
+				
+				for(int v = 1; v < f.length; v++)
+					if(f[mode] < f[v])
+						mode = v;
+				
+				item.value = ((DiscreteAttribute)item.getAttribute()).getValue(mode);
+			} else
+				((ContinuousItem)item).setScaledValue(sums[c][a] / counts[c]);
+		}
+	}
+}
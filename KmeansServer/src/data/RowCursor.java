@@ -0,0 +1,92 @@
+package data;
+
+/**
+ * La classe modella una vista riutilizzabile su una riga della tabella {@link Data}:
+ * a differenza di {@link Data#getItemSet(int)}, che crea una nuova {@link Tuple} e un
+ * {@link Item} per ciascun attributo, il cursore legge i valori direttamente dalle colonne
+ * della tabella e pu&ograve essere spostato su un'altra riga ({@link #moveTo(int)}) senza
+ * allocare memoria. &Egrave quindi adatto ai cicli che esaminano tutte le righe ad ogni
+ * iterazione.<br>
+ * Le distanze calcolate dal cursore coincidono con quelle di {@link Tuple#getDistance(Tuple)}
+ * applicato alla tupla della riga. Un cursore non va condiviso tra pi&ugrave thread.
+ *
+ * @author Luca Suriano
+ * @see Data#cursor()
+ */
+
+public class RowCursor {
+
+	/**
+	 * La tabella.
+	 */
+	private Data data;
+
+	/**
+	 * Le colonne utilizzate nel calcolo delle distanze.
+	 */
+	private DistanceColumns columns;
+
+	/**
+	 * Indice della riga corrente.
+	 */
+	private int row;
+
+	/**
+	 * Crea un cursore posizionato sulla prima riga della tabella.
+	 *
+	 * @param data	  La tabella
+	 * @param columns Le colonne della tabella utilizzate nel calcolo delle distanze
+	 */
+	RowCursor(Data data, DistanceColumns columns)
+	{
+		this.data = data;
+		this.columns = columns;
+	}
+
+	/**
+	 * Sposta il cursore sulla riga di indice row.
+	 *
+	 * @param row Indice della riga
+	 */
+	public void moveTo(int row)
+	{
+		this.row = row;
+	}
+
+	/**
+	 * Ritorna l'indice della riga corrente.
+	 */
+	public int getRow()
+	{
+		return this.row;
+	}
+
+	/**
+	 * Ritorna il valore dell'attributo continuo di indice attribute nella riga corrente.
+	 */
+	public double getContinuousValue(int attribute)
+	{
+		return data.getContinuousValue(row, attribute);
+	}
+
+	/**
+	 * Ritorna il codice ({@link DiscreteAttribute#getCode(String)}) del valore dell'attributo
+	 * discreto di indice attribute nella riga corrente.
+	 */
+	public int getDiscreteCode(int attribute)
+	{
+		return data.getDiscreteCode(row, attribute);
+	}
+
+	/**
+	 * Ritorna la distanza tra la riga corrente e la tupla codificata t.
+	 *
+	 * @param t La tupla codificata ({@link Data#encode(Tuple)})
+	 *
+	 * @return La distanza
+	 */
+	public double distance(EncodedTuple t)
+	{
+		return columns.distance(t, row);
+	}
+}
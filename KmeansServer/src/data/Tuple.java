@@ -1,6 +1,5 @@
 package data;
 import java.io.Serializable;
-import java.util.Set;
 
 /**
  * La Tuple che rappresenta una tupla come sequenza di coppie attributo-valore.
@@ -68,9 +67,34 @@ public class Tuple implements Serializable {
 		this.tuple[i] = c;
 	}
 	
+	/**
+	 * Crea una copia della tupla corrente. Gli item vengono duplicati, in modo che
+	 * l'aggiornamento di un centroide ({@link Item#update(Data, int[])}) non modifichi la copia.
+	 * 
+	 * @return Una nuova tupla con gli stessi attributi e valori della tupla corrente
+	 */
+	
+	public Tuple copy()
+	{
+		Tuple res = new Tuple(tuple.length);
+		
+		for(int i = 0; i < tuple.length; i++){
+			if(tuple[i] instanceof ContinuousItem)
+				res.add(((ContinuousItem)tuple[i]).copy(), i);
+			else
+				res.add(new DiscreteItem((DiscreteAttribute)tuple[i].getAttribute(), (String)tuple[i].getValue()), i);
+		}
+		
+		return res;
+	}
+	
 	/**
 	 * Determina la distanza tra la tupla riferita da obj e la tupla corrente (riferita da this).<br>
-	 * La distanza è ottenuta come la somma delle distanze tra gli item in posizioni eguali nelle due tuple.
+	 * La distanza è ottenuta come la somma delle distanze tra gli item in posizioni eguali nelle due tuple.<br>
+	 * Vengono sommate prima le distanze (0 o 1) degli item discreti e poi, nell'ordine degli
+	 * attributi, quelle degli item continui: lo stesso ordine del calcolo per colonne di
+	 * {@link Data#distances(EncodedTuple, int, int, double[])}, che produce quindi esattamente
+	 * lo stesso valore.
 	 * 
 	 * @param obj Parametro rappresentante la tupla per cui &egrave necessario
 	 * 			  effettuare il calcolo rispetto alla tupla corrente
@@ -83,7 +107,11 @@ public class Tuple implements Serializable {
 		int i;
 		double dist = 0;
 		for(i=0; i<obj.getLength(); i++)
-			dist = dist + this.tuple[i].distance(obj.get(i)); 
+			if(this.tuple[i] instanceof DiscreteItem)
+				dist = dist + this.tuple[i].distance(obj.get(i));
+		for(i=0; i<obj.getLength(); i++)
+			if(!(this.tuple[i] instanceof DiscreteItem))
+				dist = dist + this.tuple[i].distance(obj.get(i));
 		
 		return dist;
 	}
@@ -91,8 +119,9 @@ public class Tuple implements Serializable {
 	/**
 	 * Restituisce la media delle distanze tra la tupla corrente e quelle ottenibili dalle righe 
 	 * della tabella riferita da data aventi indice in clusteredData.<br>
-	 * Per l'ottenimento delle tuple nelle corrispondenti righe indicizzate da clusteredData,
-	 * si veda il metodo {@link Data#getItemSet(int)}.
+	 * Le righe indicizzate da clusteredData vengono lette con un cursore ({@link Data#cursor()}),
+	 * senza creare una tupla per ciascuna di esse; la media &egrave pesata con i pesi delle
+	 * righe ({@link Data#getWeight(int)}).
 	 * 
 	 * @param data				Oggetto istanza della classe Data di cui &grave necessario 
 	 * 							considerare alcune tuple.
@@ -102,16 +131,23 @@ public class Tuple implements Serializable {
 	 * @return Un valore di tipo double contenente il calcolo della media.
 	 */
 	
-	public double avgDistance(Data data, Set<Integer> clusteredData)
+	public double avgDistance(Data data, int[] clusteredData)
 	{
 		double p = 0.0, sumD=0.0;
+		long weight = 0;
+		
+		EncodedTuple t = data.encode(this);
+		RowCursor row = data.cursor();
 		
-		for(Integer itg : clusteredData){
-			double d = getDistance(data.getItemSet(itg));
-			sumD += d;
+		for(int itg : clusteredData){
+			row.moveTo(itg);
+			double d = row.distance(t);
+			long w = data.getWeight(itg);
+			sumD += w * d;
+			weight += w;
 		}
 		
-		p = sumD/clusteredData.size();
+		p = sumD/weight;
 		
 		return p;
 	}
@@ -0,0 +1,90 @@
+package database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * La classe modella la richiesta di annullamento di un job (caricamento di una tabella
+ * o scoperta dei cluster) eseguito per conto di un client.<br>
+ * L'annullamento &egrave cooperativo: il job verifica periodicamente il token con
+ * {@link #check()} (ad esempio ad ogni iterazione dell'algoritmo k-means) e si interrompe
+ * sollevando {@link JobCancelledException}. Le interrogazioni in corso sulla base di dati
+ * vengono invece interrotte subito: {@link TableData} registra ciascuno statement con
+ * {@link #register(Statement)} e {@link #cancel()} richiama {@link Statement#cancel()}.<br>
+ * I metodi possono essere richiamati da thread diversi.
+ * 
+ * @author Luca Suriano
+ * @see JobCancelledException
+ */
+
+public class CancellationToken {
+
+	/**
+	 * true se l'annullamento &egrave stato richiesto.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Statement in esecuzione per conto del job, oppure null.
+	 */
+	private Statement statement;
+
+	/**
+	 * Richiede l'annullamento del job e interrompe l'eventuale interrogazione in corso.
+	 */
+	public synchronized void cancel(){
+		cancelled = true;
+		cancelStatement();
+	}
+
+	/**
+	 * Ritorna true se l'annullamento &egrave stato richiesto.
+	 */
+	public boolean isCancelled(){
+		return cancelled;
+	}
+
+	/**
+	 * Verifica se l'annullamento &egrave stato richiesto.
+	 * 
+	 * @throws JobCancelledException Se l'annullamento &egrave stato richiesto
+	 */
+	public void check() throws JobCancelledException{
+		if(cancelled)
+			throw new JobCancelledException("Errore! - Operazione annullata!");
+	}
+
+	/**
+	 * Registra lo statement in esecuzione per conto del job, in modo che possa essere
+	 * interrotto da {@link #cancel()}. Se l'annullamento &egrave gi&agrave stato richiesto
+	 * lo statement viene interrotto subito.
+	 * 
+	 * @param s Lo statement
+	 */
+	public synchronized void register(Statement s){
+		statement = s;
+		if(cancelled)
+			cancelStatement();
+	}
+
+	/**
+	 * Rimuove la registrazione dello statement, al termine della sua esecuzione.
+	 */
+	public synchronized void unregister(){
+		statement = null;
+	}
+
+	/**
+	 * Interrompe lo statement registrato (se presente).
+	 */
+	private void cancelStatement(){
+		if(statement == null)
+			return;
+
+		try{
+			statement.cancel();
+		} catch(SQLException e){
+			// lo statement e' gia' terminato o chiuso
+		}
+	}
+}
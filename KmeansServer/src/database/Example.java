@@ -15,6 +15,13 @@ public class Example implements Comparable<Example>{
 	 */
 	private List<Object> example = new ArrayList<Object>();
 
+	/**
+	 * Numero di occorrenze della transazione nella tabella: vale 1 per le tuple lette
+	 * singolarmente e il valore di COUNT(*) per quelle lette con
+	 * {@link TableData#scanGroupedTransazioni(String, ExampleHandler)}.
+	 */
+	private long count = 1;
+
 	/**
 	 * Aggiunge l'oggetto specificato come parametro alla lista {@link #example}
 	 * 
@@ -37,6 +44,22 @@ public class Example implements Comparable<Example>{
 		return example.get(i);
 	}
 	
+	/**
+	 * Ritorna il numero di occorrenze della transazione nella tabella.
+	 */
+	public long getCount(){
+		return count;
+	}
+	
+	/**
+	 * Imposta il numero di occorrenze della transazione nella tabella.
+	 * 
+	 * @param count Numero di occorrenze
+	 */
+	public void setCount(long count){
+		this.count = count;
+	}
+	
 	/**
 	 * Metodo implementato dall'interfaccia Comparable.
 	 * Grazie a tale metodo &egrave possibile confrontare due transazioni lette dal database.
@@ -0,0 +1,23 @@
+package database;
+
+/**
+ * L'interfaccia modella un consumatore di transazioni lette dalla base di dati.<br>
+ * Viene utilizzata da {@link TableData#scanDistinctTransazioni(String, ExampleHandler)}
+ * e da {@link TableData#scanGroupedTransazioni(String, ExampleHandler)}
+ * per consegnare le tuple una alla volta, man mano che vengono lette dal resultset,
+ * senza doverle prima accumulare tutte in memoria all'interno di una lista.
+ *
+ * @author Luca Suriano
+ * @see Example
+ * @see TableData
+ */
+
+public interface ExampleHandler {
+
+	/**
+	 * Il metodo viene richiamato per ciascuna transazione letta dalla base di dati.
+	 *
+	 * @param ex La transazione letta
+	 */
+	void handle(Example ex);
+}
@@ -0,0 +1,19 @@
+package database;
+/**
+ * La classe estende Exception e modella un'eccezione che si verifica nel caso in cui
+ * un job (caricamento di una tabella o scoperta dei cluster) viene annullato tramite
+ * il relativo {@link CancellationToken}, ad esempio perch&eacute il client si &egrave disconnesso.
+ * 
+ * @author Luca Suriano
+ */
+public class JobCancelledException extends Exception{
+	/**
+	 * Richiama il costruttore della classe madre per creare l'oggetto eccezione
+	 * corrispondente con il messaggio specificato come parametro.
+	 * 
+	 * @param msg Messaggio da visualizzare nel caso in cui l'eccezione &egrave sollevata
+	 */
+	public JobCancelledException(String msg){
+		super(msg);
+	}
+}
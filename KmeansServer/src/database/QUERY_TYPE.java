@@ -1,12 +1,12 @@
 package database;
 
 /**
- * Classe enumerativa in cui sono presenti due valori MIN e MAX.
+ * Classe enumerativa in cui sono presenti i valori MIN, MAX e AVG (media).
  * 
  * @author Luca Suriano
  *
  */
 
 public enum QUERY_TYPE {
-	MIN, MAX
+	MIN, MAX, AVG
 }
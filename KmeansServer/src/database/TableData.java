@@ -15,6 +15,8 @@ import database.TableSchema.Column;
  * disponibili al sistema.<br>
  * In particolare le tuple vengono estratte singolarmente, quindi ci saranno tuple univoche nel
  * sistema, nonostante la base di dati pu&ograve possedere duplicati.<br>
+ * In alternativa le tuple possono essere estratte raggruppate insieme al numero delle loro
+ * occorrenze ({@link TableData#scanGroupedTransazioni(String, ExampleHandler)}).<br>
  * Lo schema originale della tabella (che quindi equivale a quello della base di dati)
  * &egrave ottenuto grazie alla classe {@link database.TableSchema}.<br>
  * Il risultato fornito da questa classe viene trattato dai metodi qui presenti. In particolare 
@@ -42,6 +44,14 @@ public class TableData {
 	
 	DBAccess db;
 	
+	/**
+	 * Token con cui le interrogazioni in corso possono essere annullate.
+	 * 
+	 * @see CancellationToken
+	 */
+	
+	private CancellationToken token;
+	
 	/**
 	 * Il costruttore della classe si occupa di inizializzare il membro {@link #db}
 	 * in modo da rendere disponibile l'accesso alla base di dati all'intera classe.
@@ -50,7 +60,21 @@ public class TableData {
 	 */
 	
 	public TableData(DBAccess db) {
+		this(db, new CancellationToken());
+	}
+	
+	/**
+	 * Come {@link #TableData(DBAccess)}, ma ciascuna interrogazione viene registrata presso
+	 * il token: l'annullamento del token interrompe l'interrogazione in corso (che solleva
+	 * SQLException) e la lettura delle tuple di {@link #scanDistinctTransazioni(String, ExampleHandler)}.
+	 * 
+	 * @param db	Riferimento ad un oggetto istanza della classe {@link database.DBAccess}
+	 * @param token Il token di annullamento
+	 */
+	
+	public TableData(DBAccess db, CancellationToken token) {
 		this.db = db;
+		this.token = token;
 	}
 	
 	/**
@@ -74,38 +98,130 @@ public class TableData {
 	 */
 
 	public List<Example> getDistinctTransazioni(String table) throws SQLException, EmptySetException{
-		Example tr;
-		List<Example> comp = new ArrayList<Example>();
+		final List<Example> comp = new ArrayList<Example>();
 		
-		String query = "SELECT DISTINCT * FROM " + table + " ;";
-		Statement s = DBAccess.getConnection().createStatement();
+		scanDistinctTransazioni(table, new ExampleHandler() {
+			public void handle(Example ex) {
+				comp.add(ex);
+			}
+		});
+		
+		return comp;
+	}
+	
+	/**
+	 * Esegue la stessa interrogazione di {@link #getDistinctTransazioni(String)} ma, invece di
+	 * accumulare le tuple in una lista, consegna ciascuna tupla all'oggetto handler non appena
+	 * viene letta dal resultset.<br>
+	 * Lo statement &egrave creato in sola lettura e scorrimento in avanti con fetch size pari a
+	 * Integer.MIN_VALUE: in questo modo il driver mysql legge le righe dal server una alla volta
+	 * invece di caricare l'intero resultset in memoria.<br>
+	 * Se il token di annullamento viene annullato la lettura si interrompe e il metodo
+	 * ritorna il numero di tuple lette fino a quel momento.
+	 * 
+	 * @param table 	La tabella a partire della quale si effettuer&agrave l'interrogazione
+	 * @param handler	Oggetto a cui consegnare ciascuna tupla letta
+	 * 
+	 * @return Numero di tuple lette
+	 * 
+	 * @throws SQLException		   L'eccezione &egrave sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws EmptySetException   Se il resultset, ottenuto dalla query, &egrave vuoto.
+	 * 
+	 * @see ExampleHandler
+	 */
+	
+	public int scanDistinctTransazioni(String table, ExampleHandler handler) throws SQLException, EmptySetException{
+		return scan(table, false, handler);
+	}
+	
+	/**
+	 * Come {@link #scanDistinctTransazioni(String, ExampleHandler)}, ma le tuple vengono
+	 * raggruppate dalla base di dati (GROUP BY su tutte le colonne) invece di essere rese
+	 * distinte: ciascuna tupla consegnata all'handler riporta il numero delle sue occorrenze
+	 * nella tabella (COUNT(*), vedi {@link Example#getCount()}).<br>
+	 * In questo modo la molteplicit&agrave delle tuple non viene persa e le tabelle con
+	 * molte righe ripetute vengono trasferite in forma compatta.
+	 * 
+	 * @param table 	La tabella a partire della quale si effettuer&agrave l'interrogazione
+	 * @param handler	Oggetto a cui consegnare ciascuna tupla letta
+	 * 
+	 * @return Numero di tuple (distinte) lette
+	 * 
+	 * @throws SQLException		   L'eccezione &egrave sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws EmptySetException   Se il resultset, ottenuto dalla query, &egrave vuoto.
+	 * 
+	 * @see ExampleHandler
+	 */
+	
+	public int scanGroupedTransazioni(String table, ExampleHandler handler) throws SQLException, EmptySetException{
+		return scan(table, true, handler);
+	}
+	
+	/**
+	 * Esegue l'interrogazione delle tuple distinte (grouped false) oppure raggruppate con
+	 * il numero di occorrenze (grouped true) e consegna ciascuna tupla all'handler.
+	 */
+	
+	private int scan(String table, boolean grouped, ExampleHandler handler) throws SQLException, EmptySetException{
+		Example tr;
+		int count = 0;
 		
-		ResultSet r = s.executeQuery(query);
 		TableSchema tbs = new TableSchema(this.db, table);
+		int numberOfAttributes = tbs.getNumberOfAttributes();
 		
+		String query;
+		if(grouped){
+			String columns = "";
+			for(int i = 0; i < numberOfAttributes; i++)
+				columns += (i > 0 ? ", " : "") + tbs.getColumn(i).getColumnName();
+			query = "SELECT " + columns + ", COUNT(*) FROM " + table + " GROUP BY " + columns + " ;";
+		} else
+			query = "SELECT DISTINCT * FROM " + table + " ;";
 		
-		if(r.next()){
-			   do{
-				   tr  = new Example();
-					
-					for(int i = 0; i < tbs.getNumberOfAttributes(); i++){
-						String currColl = tbs.getColumn(i).getColumnName();
-						
-						if( tbs.getColumn(i).isNumber())
-							tr.add(r.getDouble(currColl));
-						else
-							tr.add(r.getString(currColl));
-					}
+		Statement s = DBAccess.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		s.setFetchSize(Integer.MIN_VALUE);
+		token.register(s);
+		
+		ResultSet r;
+		try{
+			r = s.executeQuery(query);
+		} catch(SQLException e){
+			token.unregister();
+			s.close();
+			throw e;
+		}
+		
+		try{
+			while(!token.isCancelled() && r.next()){
+				tr  = new Example();
+				
+				for(int i = 0; i < numberOfAttributes; i++){
+					String currColl = tbs.getColumn(i).getColumnName();
 					
-					comp.add(tr);
-			      
-			   }while(r.next());
-		} else
-			   throw new EmptySetException("Errore! - Risultato della query vuoto! Nessuna tupla.");
+					if( tbs.getColumn(i).isNumber())
+						tr.add(r.getDouble(currColl));
+					else
+						tr.add(r.getString(currColl));
+				}
+				
+				if(grouped)
+					tr.setCount(r.getLong(numberOfAttributes + 1));
+				
+				handler.handle(tr);
+				count++;
+			}
+		} finally {
+			token.unregister();
+			r.close();
+			s.close();
+		}
 		
-		r.close();
+		if(count == 0)
+			throw new EmptySetException("Errore! - Risultato della query vuoto! Nessuna tupla.");
 		
-		return comp;
+		return count;
 	}
 	
 	/**
@@ -134,35 +250,40 @@ public class TableData {
 		
 		Statement s = DBAccess.getConnection().createStatement();
 		
-		String query = "SELECT " + column.getColumnName() + " FROM " + table + " ORDER BY " + column.getColumnName() + " ASC ;";
+		String query = "SELECT DISTINCT " + column.getColumnName() + " FROM " + table + " ORDER BY " + column.getColumnName() + " ASC ;";
 
-		ResultSet r = s.executeQuery(query);
-		
-		int index = 1;
-		
-		while(r.next()) {
-			res.add(r.getObject(column.getColumnName()));
-			index++;
+		token.register(s);
+		try{
+			ResultSet r = s.executeQuery(query);
+			
+			int index = 1;
+			
+			while(r.next()) {
+				res.add(r.getObject(column.getColumnName()));
+				index++;
+			}
+			
+			r.close();
+		} finally {
+			token.unregister();
 		}
 		
-		r.close();
-		
 		return res;
 
 	}
 	
 	/**
-	 * Formula ed esegue una interrogazione SQL per estrarre il valore aggregato (valore minimo 
-	 * o valore massimo) cercato nella colonna di nome column della tabella di nome table.<br>
+	 * Formula ed esegue una interrogazione SQL per estrarre il valore aggregato (valore minimo,
+	 * valore massimo o media) cercato nella colonna di nome column della tabella di nome table.<br>
 	 * Il metodo solleva e propaga una NoValueException se il resultset è vuoto o il valore 
 	 * calcolato &egravè pari a null.
 	 * 
 	 * @param table		   La tabella a partire della quale si effettuer&agrave l'interrogazione
 	 * @param column	   La colonna da considerare per la tabella specificata
-	 * @param aggregate	   Valore enumerativo (MAX o MIN) per determinare se effettuare una query
-	 * 					   per estrarre il valore minimo o il valore massimo
+	 * @param aggregate	   Valore enumerativo (MAX, MIN o AVG) per determinare se effettuare una
+	 * 					   query per estrarre il valore minimo, il valore massimo o la media
 	 * 
-	 * @return Il valore di massimo o minimo calcolato per la colonna specificata come parametro
+	 * @return Il valore di massimo, minimo o media calcolato per la colonna specificata come parametro
 	 * 
 	 * @throws SQLException		   L'eccezione &egrave sollevata e propagata in presenza di errori 
 	 * 							   nella esecuzione della query.
@@ -178,7 +299,13 @@ public class TableData {
 		
 		String query = "SELECT " + aggregate + "(" + column.getColumnName() + ") FROM " + table + " ;";
 
-		ResultSet r = s.executeQuery(query);
+		ResultSet r;
+		token.register(s);
+		try{
+			r = s.executeQuery(query);
+		} finally {
+			token.unregister();
+		}
 		
 		if(r.next() && res != null) {
 			
@@ -202,4 +329,46 @@ public class TableData {
 		
 		return res;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Formula ed esegue una interrogazione SQL per estrarre il valore pi&ugrave frequente
+	 * della colonna di nome column della tabella di nome table (a parit&agrave di frequenza
+	 * prevale il primo valore in ordine crescente). Il conteggio avviene nella base di dati,
+	 * per cui viene trasferita una sola tupla.
+	 * 
+	 * @param table		   La tabella a partire della quale si effettuer&agrave l'interrogazione
+	 * @param column	   La colonna da considerare per la tabella specificata
+	 * 
+	 * @return Il valore pi&ugrave frequente della colonna
+	 * 
+	 * @throws SQLException		   L'eccezione &egrave sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws NoValueException	   Eccezione sollevata se il resultset &egrave vuoto
+	 */
+	
+	public Object getMostFrequentColumnValue(String table, Column column) throws SQLException, NoValueException{
+		
+		Object res;
+		
+		Statement s = DBAccess.getConnection().createStatement();
+		
+		String query = "SELECT " + column.getColumnName() + ", COUNT(*) AS occorrenze FROM " + table
+				+ " GROUP BY " + column.getColumnName() + " ORDER BY occorrenze DESC, " + column.getColumnName() + " ASC LIMIT 1 ;";
+		
+		token.register(s);
+		try{
+			ResultSet r = s.executeQuery(query);
+			
+			if(!r.next())
+				throw new NoValueException("Errore! - Risultato della query vuoto, nessuna tupla!");
+			
+			res = r.getObject(1);
+		} finally {
+			token.unregister();
+			// la chiusura dello statement chiude anche il resultset
+			s.close();
+		}
+		
+		return res;
+	}
+}
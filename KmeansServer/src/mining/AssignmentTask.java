@@ -0,0 +1,114 @@
+package mining;
+
+import java.util.concurrent.RecursiveTask;
+
+import data.Data;
+import data.EncodedTuple;
+
+/**
+ * La classe modella il passo di assegnamento dell'algoritmo k-means eseguito in parallelo
+ * su un {@link java.util.concurrent.ForkJoinPool}.<br>
+ * L'intervallo di righe della tabella {@link data.Data} assegnato al task viene suddiviso
+ * ricorsivamente a met&agrave finch&egrave non diventa pi&ugrave piccolo della soglia
+ * specificata; ciascun blocco di righe viene quindi elaborato da un unico thread, che calcola
+ * per ogni riga il cluster pi&ugrave vicino a partire dai centroidi codificati
+ * ({@link ClusterSet#nearestClusters(Data, EncodedTuple[], int, int, int[], double[])})
+ * e lo scrive nella posizione corrispondente del vettore nearest (i thread scrivono in
+ * posizioni disgiunte). Il vettore di assegnamento del {@link ClusterSet} viene soltanto letto:
+ * gli spostamenti sono applicati al termine del passo.<br>
+ * Ogni task conta in una variabile locale (confinata nel thread che lo esegue) le righe che
+ * hanno cambiato cluster; i conteggi dei sotto-task vengono sommati al momento del join,
+ * senza alcuna sincronizzazione tra i thread.
+ * 
+ * @author Luca Suriano
+ * @see ClusterSet#updateAssignment(Data, java.util.concurrent.ForkJoinPool)
+ */
+
+class AssignmentTask extends RecursiveTask<Integer> {
+
+	/**
+	 * Il ClusterSet i cui centroidi e il cui vettore di assegnamento vengono utilizzati 
+	 * in sola lettura.
+	 */
+	private ClusterSet C;
+	
+	/**
+	 * I centroidi del ClusterSet codificati per il calcolo delle distanze per colonne.
+	 */
+	private EncodedTuple[] centroids;
+	
+	/**
+	 * Vettore in cui scrivere, per ciascuna riga, l'indice del cluster pi&ugrave vicino.
+	 */
+	private int[] nearest;
+	
+	/**
+	 * La tabella contenente le righe da assegnare.
+	 */
+	private Data data;
+	
+	/**
+	 * Prima riga (inclusa) dell'intervallo assegnato al task.
+	 */
+	private int from;
+	
+	/**
+	 * Ultima riga (esclusa) dell'intervallo assegnato al task.
+	 */
+	private int to;
+	
+	/**
+	 * Numero massimo di righe elaborate da un task senza ulteriori suddivisioni.
+	 */
+	private int threshold;
+	
+	/**
+	 * Il costruttore inizializza il task per l'intervallo di righe [from, to).
+	 * 
+	 * @param C			Il ClusterSet di cui utilizzare i centroidi
+	 * @param centroids	I centroidi codificati ({@link ClusterSet#encodeCentroids(Data)})
+	 * @param nearest	Il vettore in cui scrivere il cluster pi&ugrave vicino a ciascuna riga
+	 * @param data		La tabella contenente le righe
+	 * @param from		Prima riga (inclusa)
+	 * @param to		Ultima riga (esclusa)
+	 * @param threshold	Dimensione massima di un blocco elaborato sequenzialmente
+	 */
+	AssignmentTask(ClusterSet C, EncodedTuple[] centroids, int[] nearest, Data data, int from, int to, int threshold){
+		this.C = C;
+		this.centroids = centroids;
+		this.nearest = nearest;
+		this.data = data;
+		this.from = from;
+		this.to = to;
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * Calcola per ciascuna riga dell'intervallo il cluster pi&ugrave vicino, suddividendo
+	 * l'intervallo se pi&ugrave grande della soglia.
+	 * 
+	 * @return Numero di righe che hanno cambiato cluster
+	 */
+	protected Integer compute() {
+		if(to - from <= threshold){
+			int changed = 0;
+			
+			C.nearestClusters(data, centroids, from, to, nearest, null);
+			for(int i = from; i < to; i++){
+				if(C.getClusterIndex(i) != nearest[i])
+					changed++;
+			}
+			
+			return changed;
+		}
+		
+		int mid = (from + to) >>> 1;
+		AssignmentTask left = new AssignmentTask(C, centroids, nearest, data, from, mid, threshold);
+		AssignmentTask right = new AssignmentTask(C, centroids, nearest, data, mid, to, threshold);
+		
+		left.fork();
+		int changed = right.compute();
+		
+		return changed + left.join();
+	}
+}
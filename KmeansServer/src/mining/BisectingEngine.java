@@ -0,0 +1,377 @@
+package mining;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.EncodedTuple;
+import data.PrototypeAccumulator;
+import data.RowCursor;
+import data.Tuple;
+import database.JobCancelledException;
+
+/**
+ * Il motore implementa la variante "bisecting" dell'algoritmo k-means, adatta a valori di
+ * k elevati: partendo da un unico cluster che contiene l'intera tabella, divide ripetutamente
+ * in due il cluster con la maggiore somma delle distanze (pesate) delle righe dal proprio
+ * centroide, eseguendo l'algoritmo k-means con k = 2 sulle sole righe di tale cluster, finch&egrave
+ * i cluster non sono k.<br>
+ * Ciascuna divisione confronta le righe del cluster con due soli centroidi, per cui il costo
+ * complessivo &egrave proporzionale a n &middot; log k per iterazione anzich&eacute a n &middot; k.
+ * I centroidi iniziali di ciascuna divisione sono una riga estratta con probabilit&agrave
+ * proporzionale al peso e una seconda riga estratta con la strategia k-means++ rispetto alla
+ * prima; le iterazioni di ciascuna divisione si arrestano con gli stessi criteri degli altri
+ * motori (vedi {@link KmeansEngine#setConvergence(int, double, double, long)}), applicati alle
+ * righe del cluster diviso. Il tempo massimo vale invece per l'intera esecuzione: al suo
+ * raggiungimento il motore smette di dividere i cluster.<br>
+ * L'osservatore dell'avanzamento viene notificato al termine di ciascuna divisione, con il
+ * numero di cluster ottenuti come numero di iterazione, il numero di righe passate al nuovo
+ * cluster e la somma delle distanze delle righe dai centroidi dei cluster correnti.<br>
+ * Le righe di ciascun cluster occupano un tratto contiguo di un unico vettore di indici, che
+ * una divisione ripartisce senza allocare altra memoria.<br>
+ * Il motore non utilizza i centroidi iniziali del {@link ClusterSet}: al termine ciascuna riga
+ * viene assegnata al cluster (foglia) che la contiene e i centroidi vengono ricalcolati, per
+ * cui il risultato &egrave un normale ClusterSet. L'albero delle divisioni viene conservato nel
+ * ClusterSet ({@link ClusterSet#getHierarchy()}) per l'esplorazione gerarchica dei cluster.
+ * Se le righe non consentono k cluster distinti (righe identiche) o le divisioni vengono
+ * interrotte dal tempo massimo prima di ottenere k cluster, i cluster non utilizzati vengono eliminati e il
+ * ClusterSet contiene solo i cluster ottenuti ({@link ClusterSet#truncate(int)}).<br>
+ * Il numero di distanze evitate non viene calcolato, dato che le iterazioni non sono
+ * confrontabili con quelle dell'algoritmo standard.
+ *
+ * @author Luca Suriano
+ * @see KmeansEngine
+ * @see BisectingNode
+ */
+
+class BisectingEngine extends KmeansEngine {
+
+	/**
+	 * Il motore sceglie da s&eacute i centroidi.
+	 */
+	boolean usesInitialCentroids(){
+		return false;
+	}
+
+	int run(ClusterSet C, Data data, ForkJoinPool pool) throws JobCancelledException {
+		int n = data.getNumberOfExamples();
+		int k = C.getLen();
+		int[] rows = new int[n];
+		int[] side = new int[n];
+		int[] buffer = new int[n];
+		RowCursor row = data.cursor();
+		PriorityQueue<Segment> queue = new PriorityQueue<Segment>();
+		List<Segment> leaves = new ArrayList<Segment>();
+		STOP_CRITERION criterion = STOP_CRITERION.CONVERGED;
+		int numberOfIterations = 0;
+		int splits = 0;
+
+		start();
+
+		for(int id = 0; id < n; id++)
+			rows[id] = id;
+
+		Segment root = segment(data, row, rows, 0, n, centroid(data, rows, 0, n, 0, null));
+		double objective = root.node.getObjective();
+		queue.add(root);
+
+		while(splits < k - 1 && !queue.isEmpty()){
+			checkCancelled();
+
+			// solo il tempo massimo vale per l'intera esecuzione: il numero massimo di iterazioni
+			// si applica a ciascuna divisione
+			if(budgetExceeded(0)){
+				criterion = stopCriterion;
+				break;
+			}
+
+			Segment s = queue.poll();
+
+			// le righe del cluster coincidono tutte con il centroide
+			Tuple[] seeds = (s.node.getObjective() > 0) ? seeds(data, row, rows, s) : null;
+			if(seeds == null){
+				leaves.add(s);
+				continue;
+			}
+
+			numberOfIterations += split(data, row, rows, side, buffer, s, seeds);
+
+			int middle = s.from + countSide(side, rows, s.from, s.to, 0);
+			Segment left = segment(data, row, rows, s.from, middle, centroid(data, rows, s.from, middle, 0, null));
+			Segment right = segment(data, row, rows, middle, s.to, centroid(data, rows, middle, s.to, 0, null));
+
+			s.node.split(left.node, right.node, splits++);
+			queue.add(left);
+			queue.add(right);
+
+			if(stopCriterion != STOP_CRITERION.CONVERGED)
+				criterion = stopCriterion;
+
+			objective += left.node.getObjective() + right.node.getObjective() - s.node.getObjective();
+			if(isReporting())
+				report(new ClusterSet(centroids(leaves, queue)), splits + 1, s.to - middle, objective);
+		}
+
+		leaves.addAll(queue);
+		root.node.numberLeaves(0);
+
+		for(Segment s : leaves){
+			int c = s.node.getFirstCluster();
+
+			for(int i = s.from; i < s.to; i++)
+				C.assign(rows[i], c);
+		}
+		C.truncate(leaves.size());
+		C.updateCentroids(data, pool);
+		C.setHierarchy(root.node);
+
+		stopCriterion = criterion;
+
+		return numberOfIterations;
+	}
+
+	/**
+	 * Divide in due le righe del tratto s di rows con l'algoritmo k-means con k = 2 e le
+	 * ripartisce: al termine le righe con side[riga] pari a 0 precedono nel tratto quelle
+	 * con side[riga] pari a 1, mantenendo l'ordine crescente.
+	 *
+	 * @param data	 La tabella
+	 * @param row	 Un cursore sulla tabella
+	 * @param rows	 Il vettore degli indici di riga
+	 * @param side	 Il vettore in cui scrivere la parte (0 o 1) di ciascuna riga
+	 * @param buffer Un vettore di appoggio di n celle
+	 * @param s		 Il tratto da dividere
+	 * @param seeds	 I due centroidi iniziali ({@link #seeds(Data, RowCursor, int[], Segment)})
+	 *
+	 * @return Numero di iterazioni eseguite
+	 * @throws JobCancelledException Se il job viene annullato
+	 */
+	private int split(Data data, RowCursor row, int[] rows, int[] side, int[] buffer, Segment s, Tuple[] seeds) throws JobCancelledException {
+		int m = s.to - s.from;
+		Tuple[] centroids = new Tuple[]{seeds[0].copy(), seeds[1].copy()};
+		int numberOfIterations = 0;
+		int moved;
+		double maxShift;
+
+		for(int i = s.from; i < s.to; i++)
+			side[rows[i]] = -1;
+
+		do{
+			checkCancelled();
+			numberOfIterations++;
+
+			moved = assign(data, row, rows, side, s, centroids);
+			int first = countSide(side, rows, s.from, s.to, 0);
+
+			// le righe sono state tutte attratte da un solo centroide: si torna ai centroidi iniziali
+			if(first == 0 || first == m){
+				centroids = new Tuple[]{seeds[0].copy(), seeds[1].copy()};
+				assign(data, row, rows, side, s, centroids);
+				stopCriterion = STOP_CRITERION.CONVERGED;
+				break;
+			}
+
+			// lo spostamento dei centroidi viene misurato solo se richiesto
+			Tuple[] old = (shiftTolerance > 0) ? new Tuple[]{centroids[0].copy(), centroids[1].copy()} : null;
+			centroids[0] = centroid(data, rows, s.from, s.to, 0, side);
+			centroids[1] = centroid(data, rows, s.from, s.to, 1, side);
+			maxShift = (old != null) ? Math.max(old[0].getDistance(centroids[0]), old[1].getDistance(centroids[1])) : Double.MAX_VALUE;
+
+		}while(!stop(numberOfIterations, moved, m, maxShift));
+
+		partition(rows, side, buffer, s.from, s.to);
+
+		return numberOfIterations;
+	}
+
+	/**
+	 * Assegna ciascuna riga del tratto s al pi&ugrave vicino dei due centroidi (al primo a
+	 * parit&agrave di distanza, come in {@link ClusterSet#nearestClusterIndex(Tuple)}).
+	 *
+	 * @return Numero di righe che hanno cambiato parte
+	 */
+	private int assign(Data data, RowCursor row, int[] rows, int[] side, Segment s, Tuple[] centroids){
+		EncodedTuple first = data.encode(centroids[0]);
+		EncodedTuple second = data.encode(centroids[1]);
+		int moved = 0;
+
+		for(int i = s.from; i < s.to; i++){
+			row.moveTo(rows[i]);
+			int nearest = (row.distance(second) < row.distance(first)) ? 1 : 0;
+
+			if(side[rows[i]] != nearest){
+				side[rows[i]] = nearest;
+				moved++;
+			}
+		}
+		distanceComputations += 2L * (s.to - s.from);
+
+		return moved;
+	}
+
+	/**
+	 * Sceglie i due centroidi iniziali della divisione del tratto s: una riga estratta con
+	 * probabilit&agrave proporzionale al peso e una seconda estratta con probabilit&agrave
+	 * proporzionale al peso per il quadrato della distanza dalla prima, e quindi diversa da essa.
+	 *
+	 * @return I due centroidi iniziali, oppure null se tutte le righe del tratto coincidono
+	 */
+	private Tuple[] seeds(Data data, RowCursor row, int[] rows, Segment s){
+		double r = random.nextDouble() * s.node.getWeight();
+		int first = s.to - 1;
+
+		for(int i = s.from; i < s.to - 1; i++){
+			r -= data.getWeight(rows[i]);
+			if(r < 0){
+				first = i;
+				break;
+			}
+		}
+
+		Tuple seed = data.getItemSet(rows[first]);
+		EncodedTuple encoded = data.encode(seed);
+		double[] dist = new double[s.to - s.from];
+		double total = 0;
+		int last = -1;
+
+		for(int i = s.from; i < s.to; i++){
+			row.moveTo(rows[i]);
+			double d = row.distance(encoded);
+			dist[i - s.from] = data.getWeight(rows[i]) * d * d;
+			total += dist[i - s.from];
+			if(d > 0)
+				last = i;
+		}
+		distanceComputations += s.to - s.from;
+
+		if(last < 0)
+			return null;
+
+		r = random.nextDouble() * total;
+		int second = last;
+		for(int i = s.from; i < last; i++){
+			r -= dist[i - s.from];
+			if(dist[i - s.from] > 0 && r < 0){
+				second = i;
+				break;
+			}
+		}
+
+		return new Tuple[]{seed, data.getItemSet(rows[second])};
+	}
+
+	/**
+	 * Ritorna i centroidi dei cluster correnti (le foglie gi&agrave trovate e quelle in attesa di
+	 * essere divise), per la notifica all'osservatore dell'avanzamento.
+	 */
+	private static Tuple[] centroids(List<Segment> leaves, PriorityQueue<Segment> queue){
+		Tuple[] centroids = new Tuple[leaves.size() + queue.size()];
+		int c = 0;
+
+		for(Segment s : leaves)
+			centroids[c++] = s.node.getCentroid();
+		for(Segment s : queue)
+			centroids[c++] = s.node.getCentroid();
+
+		return centroids;
+	}
+
+	/**
+	 * Calcola il centroide delle righe del tratto di rows da from (inclusa) a to (esclusa)
+	 * con side[riga] pari a part (tutte le righe del tratto se side &egrave null).
+	 */
+	private static Tuple centroid(Data data, int[] rows, int from, int to, int part, int[] side){
+		PrototypeAccumulator stats = new PrototypeAccumulator(data, 1);
+		Tuple centroid = null;
+
+		for(int i = from; i < to; i++)
+			if(side == null || side[rows[i]] == part){
+				stats.add(data, rows[i], 0);
+				if(centroid == null)
+					centroid = data.getItemSet(rows[i]);
+			}
+
+		stats.updatePrototype(0, centroid);
+
+		return centroid;
+	}
+
+	/**
+	 * Crea il nodo (foglia) delle righe del tratto di rows da from (inclusa) a to (esclusa),
+	 * con centroide centroid, calcolando la somma delle distanze delle righe dal centroide.
+	 */
+	private Segment segment(Data data, RowCursor row, int[] rows, int from, int to, Tuple centroid){
+		EncodedTuple encoded = data.encode(centroid);
+		double objective = 0;
+		long weight = 0;
+
+		for(int i = from; i < to; i++){
+			row.moveTo(rows[i]);
+			objective += data.getWeight(rows[i]) * row.distance(encoded);
+			weight += data.getWeight(rows[i]);
+		}
+		distanceComputations += to - from;
+
+		return new Segment(new BisectingNode(centroid, to - from, weight, objective), from, to);
+	}
+
+	/**
+	 * Conta le righe del tratto di rows da from (inclusa) a to (esclusa) con side[riga] pari a part.
+	 */
+	private static int countSide(int[] side, int[] rows, int from, int to, int part){
+		int count = 0;
+
+		for(int i = from; i < to; i++)
+			if(side[rows[i]] == part)
+				count++;
+
+		return count;
+	}
+
+	/**
+	 * Ripartisce il tratto di rows da from (inclusa) a to (esclusa) in modo che le righe con
+	 * side[riga] pari a 0 precedano le altre, mantenendo l'ordine relativo.
+	 */
+	private static void partition(int[] rows, int[] side, int[] buffer, int from, int to){
+		int next = from;
+		int other = 0;
+
+		for(int i = from; i < to; i++)
+			if(side[rows[i]] == 0)
+				rows[next++] = rows[i];
+			else
+				buffer[other++] = rows[i];
+
+		System.arraycopy(buffer, 0, rows, next, other);
+	}
+
+	/**
+	 * Un cluster in attesa di essere diviso: il nodo dell'albero e il tratto del vettore
+	 * degli indici che ne contiene le righe. I cluster sono ordinati per somma delle
+	 * distanze decrescente.
+	 */
+	private static class Segment implements Comparable<Segment> {
+
+		/**
+		 * Il nodo dell'albero.
+		 */
+		private BisectingNode node;
+
+		/**
+		 * Prima (inclusa) e ultima (esclusa) posizione delle righe nel vettore degli indici.
+		 */
+		private int from, to;
+
+		Segment(BisectingNode node, int from, int to){
+			this.node = node;
+			this.from = from;
+			this.to = to;
+		}
+
+		public int compareTo(Segment other){
+			return Double.compare(other.node.getObjective(), node.getObjective());
+		}
+	}
+}
@@ -0,0 +1,229 @@
+package mining;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import data.Tuple;
+
+/**
+ * La classe modella un nodo dell'albero delle divisioni costruito dalla variante
+ * {@link ENGINE_TYPE#BISECTING} (vedi {@link BisectingEngine}): la radice rappresenta
+ * l'intera tabella e i due figli di un nodo interno le due parti in cui le sue righe sono
+ * state divise. Le foglie corrispondono ai cluster del {@link ClusterSet} prodotto.<br>
+ * Ciascun nodo mantiene il proprio centroide, il numero di righe (e di occorrenze) che
+ * rappresenta e la somma delle distanze di tali righe dal centroide; le foglie sotto un
+ * nodo sono i cluster di indice compreso tra {@link #getFirstCluster()} e
+ * {@link #getLastCluster()}, per cui le righe di un nodo si ottengono dai cluster del
+ * ClusterSet senza ripetere l'algoritmo.<br>
+ * Le divisioni sono numerate nell'ordine in cui sono state eseguite: la soluzione con
+ * j cluster (j minore o uguale a k) &egrave quella ottenuta dopo le prime j - 1 divisioni
+ * (vedi {@link #cut(int)}) e consente di esplorare i cluster in modo gerarchico.
+ *
+ * @author Luca Suriano
+ * @see ClusterSet#getHierarchy()
+ */
+
+public class BisectingNode implements Serializable {
+
+	/**
+	 * Il centroide delle righe del nodo.
+	 */
+	private Tuple centroid;
+
+	/**
+	 * Numero di righe del nodo.
+	 */
+	private int size;
+
+	/**
+	 * Somma dei pesi ({@link data.Data#getWeight(int)}) delle righe del nodo.
+	 */
+	private long weight;
+
+	/**
+	 * Somma delle distanze (pesate) delle righe del nodo dal suo centroide.
+	 */
+	private double objective;
+
+	/**
+	 * I due figli (null per le foglie).
+	 */
+	private BisectingNode left, right;
+
+	/**
+	 * Posizione della divisione del nodo nell'ordine di esecuzione (0 per la prima
+	 * divisione), oppure -1 se il nodo &egrave una foglia.
+	 */
+	private int split = -1;
+
+	/**
+	 * Indici del primo e dell'ultimo cluster (foglia) sotto il nodo.
+	 */
+	private int firstCluster, lastCluster;
+
+	/**
+	 * Crea un nodo foglia.
+	 *
+	 * @param centroid	Il centroide delle righe del nodo
+	 * @param size		Numero di righe
+	 * @param weight	Somma dei pesi delle righe
+	 * @param objective Somma delle distanze delle righe dal centroide
+	 */
+	BisectingNode(Tuple centroid, int size, long weight, double objective){
+		this.centroid = centroid;
+		this.size = size;
+		this.weight = weight;
+		this.objective = objective;
+	}
+
+	/**
+	 * Registra la divisione del nodo nei due figli.
+	 *
+	 * @param left	Il primo figlio
+	 * @param right Il secondo figlio
+	 * @param split Posizione della divisione nell'ordine di esecuzione
+	 */
+	void split(BisectingNode left, BisectingNode right, int split){
+		this.left = left;
+		this.right = right;
+		this.split = split;
+	}
+
+	/**
+	 * Numera le foglie da first in poi, da sinistra a destra, e registra in ciascun nodo
+	 * l'intervallo dei cluster sottostanti.
+	 *
+	 * @param first Indice della prima foglia
+	 *
+	 * @return Indice successivo all'ultima foglia numerata
+	 */
+	int numberLeaves(int first){
+		firstCluster = first;
+
+		if(isLeaf())
+			lastCluster = first;
+		else
+			lastCluster = right.numberLeaves(left.numberLeaves(first)) - 1;
+
+		return lastCluster + 1;
+	}
+
+	public Tuple getCentroid(){
+		return centroid;
+	}
+
+	public int getSize(){
+		return size;
+	}
+
+	public long getWeight(){
+		return weight;
+	}
+
+	public double getObjective(){
+		return objective;
+	}
+
+	public BisectingNode getLeft(){
+		return left;
+	}
+
+	public BisectingNode getRight(){
+		return right;
+	}
+
+	public boolean isLeaf(){
+		return left == null;
+	}
+
+	/**
+	 * Ritorna la posizione della divisione del nodo nell'ordine di esecuzione, oppure -1
+	 * se il nodo &egrave una foglia.
+	 */
+	public int getSplitOrder(){
+		return split;
+	}
+
+	/**
+	 * Ritorna l'indice del primo cluster del {@link ClusterSet} che appartiene al nodo.
+	 */
+	public int getFirstCluster(){
+		return firstCluster;
+	}
+
+	/**
+	 * Ritorna l'indice dell'ultimo cluster del {@link ClusterSet} che appartiene al nodo.
+	 */
+	public int getLastCluster(){
+		return lastCluster;
+	}
+
+	/**
+	 * Ritorna il numero di foglie sotto il nodo.
+	 */
+	public int getNumberOfLeaves(){
+		return lastCluster - firstCluster + 1;
+	}
+
+	/**
+	 * Ritorna i nodi che formano la soluzione con j cluster, ovvero quella ottenuta dopo le
+	 * prime j - 1 divisioni, da sinistra a destra.
+	 *
+	 * @param j Numero di cluster (tra 1 e il numero di foglie)
+	 *
+	 * @return I j nodi
+	 * @throws IllegalArgumentException Se j non &egrave compreso tra 1 e il numero di foglie
+	 */
+	public List<BisectingNode> cut(int j){
+		if(j < 1 || j > getNumberOfLeaves())
+			throw new IllegalArgumentException("Numero di cluster non valido: " + j);
+
+		List<BisectingNode> nodes = new ArrayList<BisectingNode>();
+		cut(j - 1, nodes);
+
+		return nodes;
+	}
+
+	/**
+	 * Aggiunge a nodes i nodi sotto questo che non sono stati divisi nelle prime
+	 * splits divisioni.
+	 */
+	private void cut(int splits, List<BisectingNode> nodes){
+		if(isLeaf() || split >= splits)
+			nodes.add(this);
+		else {
+			left.cut(splits, nodes);
+			right.cut(splits, nodes);
+		}
+	}
+
+	/**
+	 * Ritorna l'albero come testo, un nodo per riga con un rientro proporzionale alla
+	 * profondit&agrave: i cluster sottostanti, il numero di righe, l'obiettivo e il centroide.
+	 */
+	public String toString(){
+		return toString("");
+	}
+
+	/**
+	 * Ritorna il nodo e, con un rientro maggiore, i suoi figli come testo.
+	 *
+	 * @param indent Il rientro del nodo
+	 */
+	private String toString(String indent){
+		String str = indent + "Cluster " + firstCluster;
+
+		if(!isLeaf())
+			str += "-" + lastCluster;
+		str += ": righe=" + size + " obiettivo=" + objective + " centroide=(";
+		for(int a = 0; a < centroid.getLength(); a++)
+			str += " " + centroid.get(a) + " ";
+		str += ")\n";
+
+		if(!isLeaf())
+			str += left.toString(indent + "  ") + right.toString(indent + "  ");
+
+		return str;
+	}
+}
@@ -0,0 +1,94 @@
+package mining;
+
+import java.util.concurrent.RecursiveTask;
+
+import data.Data;
+import data.PrototypeAccumulator;
+
+/**
+ * La classe modella il calcolo in parallelo degli aggregati necessari all'aggiornamento
+ * dei centroidi (passo 3 dell'algoritmo k-means).<br>
+ * Come per {@link AssignmentTask}, l'intervallo di righe viene suddiviso ricorsivamente;
+ * ciascun blocco di righe viene scandito una sola volta da un unico thread, che costruisce un
+ * {@link data.PrototypeAccumulator} parziale (somme per gli attributi continui e frequenze per
+ * gli attributi discreti, per tutti i cluster). Gli accumulatori parziali vengono fusi al
+ * momento del join.
+ * 
+ * @author Luca Suriano
+ * @see ClusterSet#updateCentroids(Data, java.util.concurrent.ForkJoinPool)
+ */
+
+class CentroidTask extends RecursiveTask<PrototypeAccumulator> {
+
+	/**
+	 * Il ClusterSet il cui vettore di assegnamento viene letto.
+	 */
+	private ClusterSet C;
+	
+	/**
+	 * La tabella contenente le righe.
+	 */
+	private Data data;
+	
+	/**
+	 * Prima riga (inclusa) dell'intervallo assegnato al task.
+	 */
+	private int from;
+	
+	/**
+	 * Ultima riga (esclusa) dell'intervallo assegnato al task.
+	 */
+	private int to;
+	
+	/**
+	 * Numero massimo di righe elaborate da un task senza ulteriori suddivisioni.
+	 */
+	private int threshold;
+	
+	/**
+	 * Il costruttore inizializza il task per l'intervallo di righe [from, to).
+	 * 
+	 * @param C			Il ClusterSet di cui aggregare le righe
+	 * @param data		La tabella contenente le righe
+	 * @param from		Prima riga (inclusa)
+	 * @param to		Ultima riga (esclusa)
+	 * @param threshold	Dimensione massima di un blocco elaborato sequenzialmente
+	 */
+	CentroidTask(ClusterSet C, Data data, int from, int to, int threshold){
+		this.C = C;
+		this.data = data;
+		this.from = from;
+		this.to = to;
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * Costruisce l'accumulatore delle righe dell'intervallo, suddividendo l'intervallo
+	 * se pi&ugrave grande della soglia.
+	 * 
+	 * @return L'accumulatore delle righe dell'intervallo
+	 */
+	protected PrototypeAccumulator compute() {
+		if(to - from <= threshold){
+			PrototypeAccumulator acc = new PrototypeAccumulator(data, C.getLen());
+			
+			for(int i = from; i < to; i++){
+				int c = C.getClusterIndex(i);
+				if(c >= 0)
+					acc.add(data, i, c);
+			}
+			
+			return acc;
+		}
+		
+		int mid = (from + to) >>> 1;
+		CentroidTask left = new CentroidTask(C, data, from, mid, threshold);
+		CentroidTask right = new CentroidTask(C, data, mid, to, threshold);
+		
+		left.fork();
+		PrototypeAccumulator acc = right.compute();
+		acc.merge(left.join());
+		
+		return acc;
+	}
+}
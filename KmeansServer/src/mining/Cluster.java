@@ -1,7 +1,8 @@
 package mining;
 import java.io.Serializable;
-import java.util.*;
 import data.Data;
+import data.EncodedTuple;
+import data.RowCursor;
 import data.Tuple;
 
 /**
@@ -9,12 +10,15 @@ import data.Tuple;
  * Ciascun cluster &egrave rappresentato da una tupla (Centroide) e da un insieme
  * di interi rappresentanti le righe della tabella {@link data.Data} appartenenti al
  * cluster.<br>
- * Il centroide &egrave modellato usando la classe {@link data.Tuple}, mentre l'insieme
- * delle tuple appartenenti al cluster &egrave modellato usando un insieme {@link java.util.Set}
+ * Il centroide &egrave modellato usando la classe {@link data.Tuple}, mentre l'appartenenza
+ * delle righe al cluster non &egrave memorizzata nel cluster stesso: essa &egrave mantenuta
+ * dal {@link ClusterSet} di cui il cluster fa parte in un unico vettore di assegnamento
+ * (riga -&gt; indice del cluster). Il cluster espone quindi le proprie righe come una vista
+ * a indici su tale vettore (vedi {@link #getClusteredData()}).
  * 
  * @author Luca Suriano
  * @see data.Data
- * @see java.util.Set
+ * @see ClusterSet
  */
 
 public class Cluster implements Serializable {
@@ -25,22 +29,29 @@ public class Cluster implements Serializable {
 	private Tuple centroid;
 	
 	/**
-	 * Insieme delle righe della tabella Data appartenenti al Cluster.
+	 * Il ClusterSet che mantiene il vettore di assegnamento delle righe ai cluster.
 	 */
+	private ClusterSet owner;
 	
-	private Set<Integer> clusteredData;
+	/**
+	 * Posizione del cluster all'interno del ClusterSet {@link #owner}.
+	 */
+	private int id;
 	
 	/**
 	 * Il costruttore si occupa di inizializzare i dati membro. In particolare
 	 * verr&agrave inizializzata la tupla centroide (attraverso il parametro)
-	 * e verr&agrave inizializzato l'insieme {@link #clusteredData}
+	 * e il riferimento al ClusterSet che ne mantiene le righe.
 	 * 
+	 * @param owner	   ClusterSet di cui il cluster fa parte
+	 * @param id	   Posizione del cluster all'interno del ClusterSet
 	 * @param centroid Tupla rappresentante il centroide del Cluster
 	 */
 
-	Cluster(Tuple centroid){
+	Cluster(ClusterSet owner, int id, Tuple centroid){
+		this.owner = owner;
+		this.id = id;
 		this.centroid = centroid;
-		clusteredData = new HashSet<Integer>();	
 	}
 
 	/**
@@ -50,28 +61,24 @@ public class Cluster implements Serializable {
 		return centroid;
 	}
 	
+	/**
+	 * Ritorna la posizione del cluster all'interno del ClusterSet.
+	 */
+	public int getId(){
+		return id;
+	}
+	
 	/**
 	 * Ritorna il valore rappresentante la riga della tabella {@link data.Data}
-	 * in posizione id.
+	 * in posizione id tra le righe del cluster.
 	 * 
-	 * @param id Posizione nell'insieme {@link #clusteredData} del valore da restituire.
+	 * @param id Posizione (tra 0 e {@link #getClusterSize()} - 1) della riga da restituire.
 	 * 
-	 * @return Valore presente all'interno dell'insieme {@link #clusteredData}
+	 * @return Indice della riga della tabella appartenente al cluster
 	 */
 
 	public int getClusterValue(int id){
-		int i = 0;
-		int res = 0;
-
-		for(Integer item : clusteredData){
-			if(id == i){
-				res = item;
-				break;
-			}else
-				i++;
-		}
-
-		return res;
+		return owner.getMember(this.id, id);
 	}
 	
 	/**
@@ -80,65 +87,88 @@ public class Cluster implements Serializable {
 	 */
 	
 	public int getClusterSize(){
-		return clusteredData.size();
+		return owner.getClusterSize(id);
+	}
+	
+	/**
+	 * Ritorna la somma dei pesi ({@link data.Data#getWeight(int)}) delle righe appartenenti
+	 * a questo Cluster, ovvero il numero di tuple della base di dati che esso rappresenta.
+	 * Coincide con {@link #getClusterSize()} se la tabella non &egrave pesata.
+	 */
+	
+	public long getClusterWeight(){
+		return owner.getClusterWeight(id);
+	}
+	
+	/**
+	 * Ritorna gli indici delle righe della tabella {@link data.Data} appartenenti a
+	 * questo cluster, in ordine crescente.
+	 * 
+	 * @return Array contenente gli indici di riga
+	 */
+	
+	public int[] getClusteredData(){
+		int[] rows = new int[getClusterSize()];
+		
+		for(int i = 0; i < rows.length; i++)
+			rows[i] = owner.getMember(id, i);
+		
+		return rows;
 	}
 
 	/**
 	 * Calcola il centroide per questo cluster utilizzando il metodo
-	 * {@link data.Item#update(Data, Set)}
+	 * {@link data.Item#update(Data, int[])}. Il centroide di un cluster vuoto
+	 * non viene modificato.
 	 * 
 	 * @param data La tabella {@link data.Data} su cui effettuare il calcolo.
 	 */
 	
 
 	void computeCentroid(Data data){
+		int[] clusteredData = getClusteredData();
+		
+		if(clusteredData.length == 0)
+			return;
+		
 		for(int i=0;i<centroid.getLength();i++){
 			centroid.get(i).update(data, clusteredData);	
 		}
 	}
 
 	/**
-	 * Aggiunge un elemento all'insieme {@link #clusteredData}.
-	 * L'aggiunta avviene solo nel caso in cui tale elemento identificato da id,
-	 * non &egrave presente nell'insieme.<br>
-	 * Ci&ograve &egrave vero solo nel caso in cui la tupla identificata da id ha cambiato cluster.
-	 * Quindi l'aggiunta all'insieme {@link #clusteredData} si verifica solo in questo caso.
+	 * Assegna la riga identificata da id a questo cluster.
+	 * L'assegnamento modifica il vettore del ClusterSet solo nel caso in cui la riga
+	 * non appartenga gi&agrave al cluster, ovvero solo se la tupla identificata da id
+	 * ha cambiato cluster (in tal caso viene rimossa automaticamente dal cluster precedente).
 	 * 
 	 * @param id Identificativo rappresentante la riga della tabella {@link data.Data}
 	 * 			 appertenente al cluster
 	 * 
+	 * @return true se la riga ha cambiato cluster, false altrimenti
 	 */
 	boolean addData(int id){
-		return clusteredData.add(id);
+		return owner.assign(id, this.id);
 
 	}
 
 	/**
 	 * Il metodo verifica verifica se una transazione &egrave clusterizzata 
-	 * (ovvero se &egrave presente nell'insieme {@link #clusteredData}).
+	 * in questo cluster.
 	 * 
 	 * Ritorna vero se la transazione &egrave clusterizzata, falso altrimenti.
 	 */
 	boolean contain(int id){
-		boolean res = false;
-
-		Iterator<Integer> clusIt = clusteredData.iterator();
-
-		while(clusIt.hasNext() && res == false){
-			Object item = clusIt.next();
-			if(item instanceof Integer && item.equals(id))
-				res = true;
-		}
-
-		return res;
+		return owner.getClusterIndex(id) == this.id;
 	}
 
 	/**
-	 * Il metodo elimina la tupla identificata da id dall'insieme {@link #clusteredData} nel
-	 * momento in cui questa cambia cluster.
+	 * Il metodo elimina la tupla identificata da id da questo cluster (se vi appartiene),
+	 * lasciandola non assegnata.
 	 */
 	void removeTuple(int id){
-		clusteredData.remove(id);
+		if(contain(id))
+			owner.assign(id, -1);
 	}
 	
 	/**
@@ -173,12 +203,20 @@ public class Cluster implements Serializable {
 
 		str += ")\nExamples:\n";
 
-		for(Integer itg : clusteredData){
+		int[] clusteredData = getClusteredData();
+		EncodedTuple encoded = data.encode(getCentroid());
+		RowCursor row = data.cursor();
+
+		for(int itg : clusteredData){
+			row.moveTo(itg);
 			str+="[";
 
 			for(int j=0; j<data.getNumberOfExplanatorySet(); j++)
 				str += data.getAttributeValue(itg, j) + " ";
-			str+="] dist="+getCentroid().getDistance(data.getItemSet(itg))+"\n";
+			str+="] dist="+row.distance(encoded);
+			if(data.isWeighted())
+				str+=" occorrenze="+data.getWeight(itg);
+			str+="\n";
 
 		}
 
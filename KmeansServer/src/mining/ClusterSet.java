@@ -1,7 +1,16 @@
 package mining;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import data.Data;
+import data.EncodedTuple;
+import data.PrototypeAccumulator;
+import data.RowCursor;
 import data.Tuple;
 import data.OutOfRangeSampleSize;
 
@@ -10,7 +19,16 @@ import data.OutOfRangeSampleSize;
  * dal vettore (attributo della classe) C.<br> 
  * Ciascuna cella del vettore conterr&agrave un cluster che sar&agrave rapprentato da una tupla
  * (centroide) e da un insieme di indici di riga della tabella {@link Data} appartenenti al
- * a ciascun centroide.
+ * a ciascun centroide.<br>
+ * L'appartenenza delle righe ai cluster &egrave mantenuta in un unico vettore di interi
+ * {@link #assignment} (riga -&gt; cluster) insieme al numero di righe di ciascun cluster
+ * {@link #clusterSizes}: in questo modo l'individuazione del cluster corrente di una riga
+ * costa tempo costante. L'elenco delle righe di ciascun cluster viene ricavato da tale vettore
+ * solo quando richiesto (vedi {@link #getMember(int, int)}).<br>
+ * Il ClusterSet mantiene inoltre gli aggregati dei cluster ({@link data.PrototypeAccumulator}),
+ * aggiornati in modo incrementale ogni volta che una riga cambia cluster: il ricalcolo dei
+ * centroidi costa quindi un tempo proporzionale al numero di righe spostate e non alla
+ * dimensione della tabella.
  * 
  * @author Luca Suriano
  * 
@@ -31,6 +49,99 @@ public class ClusterSet implements Serializable {
 	 */
 	private int i;
 	
+	/**
+	 * Vettore di assegnamento: per ciascuna riga della tabella {@link data.Data} contiene 
+	 * l'indice del cluster a cui la riga appartiene, oppure -1 se la riga non &egrave
+	 * ancora stata assegnata.
+	 */
+	private int[] assignment;
+	
+	/**
+	 * Numero di righe appartenenti a ciascun cluster.
+	 */
+	private int[] clusterSizes;
+	
+	/**
+	 * Somma dei pesi ({@link data.Data#getWeight(int)}) delle righe appartenenti a ciascun
+	 * cluster: coincide con {@link #clusterSizes} se la tabella non &egrave pesata.
+	 */
+	private long[] clusterWeights;
+	
+	/**
+	 * Indici di riga ordinati per cluster: le righe del cluster c occupano le posizioni
+	 * da {@link #memberOffsets}[c] a {@link #memberOffsets}[c+1] - 1.
+	 * L'indice viene ricostruito (ordinamento per conteggio) solo quando richiesto
+	 * dopo una modifica del vettore {@link #assignment}.
+	 */
+	private transient int[] members;
+	
+	/**
+	 * Posizioni iniziali delle righe di ciascun cluster all'interno di {@link #members}.
+	 */
+	private transient int[] memberOffsets;
+	
+	/**
+	 * La tabella a cui si riferisce il vettore di assegnamento (impostata da
+	 * {@link #initializeCentroids(Data)}).
+	 */
+	private transient Data data;
+	
+	/**
+	 * Aggregati (conteggi, somme e frequenze) delle righe di ciascun cluster.
+	 */
+	private transient PrototypeAccumulator stats;
+	
+	/**
+	 * Indica se gli aggregati {@link #stats} corrispondono al vettore di assegnamento.
+	 * Diventa falso quando gli spostamenti sono cos&igrave numerosi da rendere pi&ugrave
+	 * conveniente ricostruire gli aggregati con un'unica scansione della tabella.
+	 */
+	private transient boolean statsValid;
+	
+	/**
+	 * L'albero delle divisioni che ha prodotto i cluster, se sono stati calcolati dalla
+	 * variante {@link ENGINE_TYPE#BISECTING} (null altrimenti).
+	 */
+	private BisectingNode hierarchy;
+	
+	/**
+	 * Frazione massima di righe spostate in un passo di assegnamento oltre la quale gli
+	 * aggregati vengono ricostruiti invece che aggiornati in modo incrementale.
+	 */
+	static final double INCREMENTAL_UPDATE_LIMIT = 0.25;
+	
+	/**
+	 * Numero minimo di righe assegnate ad un singolo task nelle elaborazioni parallele.
+	 */
+	static final int MIN_CHUNK_SIZE = 1024;
+
+	/**
+	 * Numero di righe di un blocco nel calcolo delle distanze per colonne
+	 * (vedi {@link #nearestClusters(Data, EncodedTuple[], int, int, int[], double[])}).
+	 */
+	static final int BLOCK_SIZE = 256;
+	
+	/**
+	 * Numero di righe di un gruppo di blocchi confrontato con ciascun gruppo di centroidi.
+	 */
+	static final int ROW_PANEL = 4 * BLOCK_SIZE;
+	
+	/**
+	 * Numero di centroidi di un gruppo nel calcolo delle distanze per tessere.
+	 */
+	static final int CENTROID_BLOCK = 64;
+
+	/**
+	 * Numero di passate di sovracampionamento della scelta k-means|| dei centroidi.
+	 */
+	static final int OVERSAMPLING_ROUNDS = 5;
+	
+	/**
+	 * Fattore di sovracampionamento della scelta k-means||: ad ogni passata vengono
+	 * estratti in media OVERSAMPLING_FACTOR &middot; k candidati.
+	 */
+	static final double OVERSAMPLING_FACTOR = 0.5;
+	
 	/**
 	 * Crea il vettore che rappresenta il ClusterSet assegnadogli dimensione k
 	 * 
@@ -39,6 +150,25 @@ public class ClusterSet implements Serializable {
 	public ClusterSet(int k)
 	{
 		C = new Cluster[k];
+		clusterSizes = new int[k];
+		clusterWeights = new long[k];
+		assignment = new int[0];
+	}
+	
+	/**
+	 * Crea un ClusterSet con un cluster per ciascuno dei centroidi indicati e nessuna riga
+	 * assegnata: rappresenta una soluzione parziale da notificare all'osservatore
+	 * dell'avanzamento (vedi {@link BisectingEngine}).
+	 * 
+	 * @param centroids I centroidi (uno per cluster)
+	 */
+	
+	ClusterSet(Tuple[] centroids)
+	{
+		this(centroids.length);
+		
+		for(int c = 0; c < centroids.length; c++)
+			add(new Cluster(this, c, centroids[c]));
 	}
 	
 	/**
@@ -87,14 +217,386 @@ public class ClusterSet implements Serializable {
 	
 	void initializeCentroids(Data data) throws OutOfRangeSampleSize
 	{
+		initializeCentroids(data, data.sampling(C.length));
+	}
+	
+	/**
+	 * Sceglie i centroidi con la strategia indicata, crea un cluster per ogni centroide e lo
+	 * memorizza in C.<br>
+	 * Con la strategia {@link SEEDING_TYPE#KMEANSPP} il primo centroide &egrave una riga
+	 * scelta a caso; ciascuno dei successivi viene estratto con probabilit&agrave
+	 * proporzionale al quadrato della distanza ({@link Tuple#getDistance(Tuple)}) della riga
+	 * dal centroide pi&ugrave vicino tra quelli gi&agrave scelti. Dopo ogni scelta le distanze
+	 * vengono aggiornate con un'unica scansione della tabella, eseguita in parallelo se
+	 * pool non &egrave null (vedi {@link SeedingTask}). Le righe identiche ad un centroide
+	 * gi&agrave scelto hanno probabilit&agrave nulla, per cui non &egrave necessario il
+	 * controllo dei duplicati di {@link data.Data#sampling(int, Random)}.<br>
+	 * Con la strategia {@link SEEDING_TYPE#KMEANSPARALLEL} (k-means||) vengono eseguite
+	 * {@link #OVERSAMPLING_ROUNDS} passate sulla tabella: in ciascuna ogni riga diventa un
+	 * candidato, indipendentemente dalle altre, con probabilit&agrave proporzionale al quadrato
+	 * della distanza dal candidato pi&ugrave vicino (in media {@link #OVERSAMPLING_FACTOR}
+	 * &middot; k candidati per passata). Ciascun candidato riceve come peso il numero di righe
+	 * a cui &egrave pi&ugrave vicino e i k centroidi vengono infine scelti tra i candidati,
+	 * in memoria, con la strategia k-means++ pesata. Il numero di passate sulla tabella non
+	 * dipende quindi da k.
+	 * 
+	 * @param data	  La tabella rappresentata dalla classe {@link data.Data}
+	 * @param seeding La strategia di scelta
+	 * @param rand	  Il generatore di numeri casuali (eventualmente con seme fissato)
+	 * @param pool	  Il pool di thread da utilizzare oppure null
+	 * 
+	 * @throws OutOfRangeSampleSize
+	 */
+	
+	void initializeCentroids(Data data, SEEDING_TYPE seeding, Random rand, ForkJoinPool pool) throws OutOfRangeSampleSize
+	{
+		if(seeding == SEEDING_TYPE.KMEANSPP)
+			initializeCentroids(data, seedPlusPlus(data, rand, pool));
+		else if(seeding == SEEDING_TYPE.KMEANSPARALLEL)
+			initializeCentroids(data, seedParallel(data, rand, pool));
+		else
+			initializeCentroids(data, data.sampling(C.length, rand));
+	}
+	
+	/**
+	 * Sceglie le righe da utilizzare come centroidi secondo la strategia k-means++.
+	 * 
+	 * @param data La tabella
+	 * @param rand Il generatore di numeri casuali
+	 * @param pool Il pool di thread da utilizzare oppure null
+	 * 
+	 * @return Gli indici delle righe scelte
+	 * @throws OutOfRangeSampleSize
+	 */
+	
+	private int[] seedPlusPlus(Data data, Random rand, ForkJoinPool pool) throws OutOfRangeSampleSize
+	{
+		data.checkSampleSize(C.length);
 		
-		int centroidIndexes[] = data.sampling(C.length);
+		int n = data.getNumberOfExamples();
+		int[] centroidIndexes = new int[C.length];
+		boolean[] chosen = new boolean[n];
+		double[] minDist = new double[n];
+		int threshold = (pool != null) ? Math.max(MIN_CHUNK_SIZE, n / (4 * pool.getParallelism())) : n;
+		
+		Arrays.fill(minDist, Double.MAX_VALUE);
+		centroidIndexes[0] = rand.nextInt(n);
+		chosen[centroidIndexes[0]] = true;
+		
+		for(int c = 1; c < C.length; c++){
+			SeedingTask task = new SeedingTask(new EncodedTuple[]{data.encode(data.getItemSet(centroidIndexes[c - 1]))}, minDist, null, 0, data, 0, n, threshold);
+			double total = (pool != null) ? pool.invoke(task) : task.compute();
+			int row = drawRow(data, minDist, total, chosen, rand);
+			
+			centroidIndexes[c] = row;
+			chosen[row] = true;
+		}
+		
+		return centroidIndexes;
+	}
+	
+	/**
+	 * Estrae una riga non ancora scelta con probabilit&agrave proporzionale al quadrato
+	 * della sua distanza dal centroide pi&ugrave vicino, moltiplicato per il peso della riga.
+	 * 
+	 * @param data	  La tabella
+	 * @param minDist Distanza di ciascuna riga dal centroide pi&ugrave vicino
+	 * @param total	  Somma pesata dei quadrati delle distanze
+	 * @param chosen  Righe gi&agrave scelte
+	 * @param rand	  Il generatore di numeri casuali
+	 * 
+	 * @return Indice della riga estratta
+	 */
+	
+	private static int drawRow(Data data, double[] minDist, double total, boolean[] chosen, Random rand)
+	{
+		int n = minDist.length;
+		int row = -1;
+		
+		if(total > 0){
+			double r = rand.nextDouble() * total;
+			
+			for(int i = 0; i < n; i++){
+				r -= data.getWeight(i) * minDist[i] * minDist[i];
+				if(minDist[i] > 0 && !chosen[i]){
+					row = i;
+					if(r < 0)
+						break;
+				}
+			}
+		}
+		
+		// tutte le righe coincidono con i centroidi gia' scelti (ad es. attributi costanti)
+		while(row < 0 || chosen[row])
+			row = rand.nextInt(n);
+		
+		return row;
+	}
+	
+	/**
+	 * Sceglie le righe da utilizzare come centroidi secondo la strategia k-means||.
+	 * 
+	 * @param data La tabella
+	 * @param rand Il generatore di numeri casuali
+	 * @param pool Il pool di thread da utilizzare oppure null
+	 * 
+	 * @return Gli indici delle righe scelte
+	 * @throws OutOfRangeSampleSize
+	 */
+	
+	private int[] seedParallel(Data data, Random rand, ForkJoinPool pool) throws OutOfRangeSampleSize
+	{
+		data.checkSampleSize(C.length);
+		
+		int n = data.getNumberOfExamples();
+		int k = C.length;
+		double oversampling = OVERSAMPLING_FACTOR * k;
+		List<Integer> candidates = new ArrayList<Integer>();
+		boolean[] chosen = new boolean[n];
+		double[] minDist = new double[n];
+		int[] owner = new int[n];
+		int threshold = (pool != null) ? Math.max(MIN_CHUNK_SIZE, n / (4 * pool.getParallelism())) : n;
+		
+		Arrays.fill(minDist, Double.MAX_VALUE);
+		candidates.add(rand.nextInt(n));
+		chosen[candidates.get(0)] = true;
+		
+		int added = 0;
+		for(int round = 0; round <= OVERSAMPLING_ROUNDS; round++){
+			// aggiorna le distanze con i candidati estratti nella passata precedente
+			EncodedTuple[] newCandidates = new EncodedTuple[candidates.size() - added];
+			for(int j = 0; j < newCandidates.length; j++)
+				newCandidates[j] = data.encode(data.getItemSet(candidates.get(added + j)));
+			
+			SeedingTask task = new SeedingTask(newCandidates, minDist, owner, added, data, 0, n, threshold);
+			double total = (pool != null) ? pool.invoke(task) : task.compute();
+			added = candidates.size();
+			
+			if(round == OVERSAMPLING_ROUNDS || total == 0)
+				break;
+			
+			for(int i = 0; i < n; i++)
+				if(minDist[i] > 0 && !chosen[i] && rand.nextDouble() * total < oversampling * data.getWeight(i) * minDist[i] * minDist[i]){
+					candidates.add(i);
+					chosen[i] = true;
+				}
+		}
+		
+		// peso di ciascun candidato: numero di righe (pesate) a cui e' piu' vicino
+		int m = candidates.size();
+		double[] weight = new double[m];
+		for(int i = 0; i < n; i++)
+			weight[owner[i]] += data.getWeight(i);
+		
+		int[] centroidIndexes = new int[k];
+		int found = reduceCandidates(data, candidates, weight, centroidIndexes, rand);
+		
+		// meno candidati che centroidi: si completa con righe casuali
+		Arrays.fill(chosen, false);
+		for(int c = 0; c < found; c++)
+			chosen[centroidIndexes[c]] = true;
+		for(int c = found; c < k; c++){
+			int row;
+			do
+				row = rand.nextInt(n);
+			while(chosen[row]);
+			centroidIndexes[c] = row;
+			chosen[row] = true;
+		}
+		
+		return centroidIndexes;
+	}
+	
+	/**
+	 * Sceglie fino a k centroidi tra i candidati della strategia k-means|| con la strategia
+	 * k-means++ pesata: il primo con probabilit&agrave proporzionale al peso, ciascuno dei
+	 * successivi con probabilit&agrave proporzionale al peso per il quadrato della distanza
+	 * dal centroide pi&ugrave vicino tra quelli gi&agrave scelti.
+	 * 
+	 * @param data			  La tabella
+	 * @param candidates	  Gli indici delle righe candidate
+	 * @param weight		  Il peso di ciascun candidato
+	 * @param centroidIndexes Il vettore in cui scrivere gli indici delle righe scelte
+	 * @param rand			  Il generatore di numeri casuali
+	 * 
+	 * @return Il numero di centroidi scelti (minore di k se i candidati sono meno di k)
+	 */
+	
+	private static int reduceCandidates(Data data, List<Integer> candidates, double[] weight, int[] centroidIndexes, Random rand)
+	{
+		int m = candidates.size();
+		Tuple[] tuples = new Tuple[m];
+		double[] minDist = new double[m];
+		boolean[] chosen = new boolean[m];
+		
+		for(int j = 0; j < m; j++)
+			tuples[j] = data.getItemSet(candidates.get(j));
+		Arrays.fill(minDist, 1);
+		
+		int found = 0;
+		int last = -1;
+		while(found < centroidIndexes.length && found < m){
+			double total = 0;
+			for(int j = 0; j < m; j++){
+				if(last >= 0)
+					minDist[j] = Math.min(minDist[j], tuples[j].getDistance(tuples[last]));
+				if(!chosen[j])
+					total += weight[j] * minDist[j] * minDist[j];
+			}
+			
+			int next = -1;
+			double r = rand.nextDouble() * total;
+			for(int j = 0; j < m; j++)
+				if(!chosen[j] && weight[j] * minDist[j] > 0){
+					next = j;
+					r -= weight[j] * minDist[j] * minDist[j];
+					if(r < 0)
+						break;
+				}
+			
+			if(next < 0)
+				break;
+			
+			chosen[next] = true;
+			centroidIndexes[found++] = candidates.get(next);
+			last = next;
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Crea un cluster per ciascuna delle righe indicate, utilizzandola come centroide
+	 * iniziale. Consente di eseguire pi&ugrave varianti dell'algoritmo a partire dagli
+	 * stessi centroidi.
+	 * 
+	 * @param data			  La tabella rappresentata dalla classe {@link data.Data}
+	 * @param centroidIndexes Indici delle righe da utilizzare come centroidi (uno per cluster)
+	 */
+	
+	void initializeCentroids(Data data, int[] centroidIndexes)
+	{
+		Tuple[] centroids = new Tuple[centroidIndexes.length];
 		
 		for(int i=0; i<centroidIndexes.length; i++)
-		{
-			Tuple ceontroid = data.getItemSet(centroidIndexes[i]);
-			add(new Cluster(ceontroid));
+			centroids[i] = data.getItemSet(centroidIndexes[i]);
+		
+		initializeCentroids(data, centroids);
+	}
+	
+	/**
+	 * Crea un cluster per ciascuna delle prime k righe della tabella, utilizzandola come
+	 * centroide provvisorio: &egrave l'inizializzazione utilizzata con i motori che non partono
+	 * dai centroidi iniziali (vedi {@link KmeansEngine#usesInitialCentroids()}), per i quali
+	 * non serve alcuna scelta. Tali motori ricalcolano i centroidi dei cluster che utilizzano
+	 * ed eliminano gli altri ({@link #truncate(int)}).
+	 * 
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * 
+	 * @throws OutOfRangeSampleSize
+	 */
+	
+	void initializeFirstRows(Data data) throws OutOfRangeSampleSize
+	{
+		data.checkSampleSize(C.length);
+		
+		int[] centroidIndexes = new int[C.length];
+		
+		for(int c = 0; c < C.length; c++)
+			centroidIndexes[c] = c;
+		
+		initializeCentroids(data, centroidIndexes);
+	}
+	
+	/**
+	 * Inizializza i centroidi a partire dalla soluzione previous, con un numero di cluster
+	 * non maggiore (partenza a caldo): i centroidi di previous vengono copiati e ciascuno dei
+	 * centroidi aggiuntivi viene scelto con la strategia k-means++ rispetto ai centroidi
+	 * gi&agrave presenti.
+	 * 
+	 * @param data	   La tabella rappresentata dalla classe {@link data.Data}
+	 * @param previous La soluzione di partenza
+	 * @param rand	   Il generatore di numeri casuali
+	 * @param pool	   Il pool di thread da utilizzare oppure null
+	 * 
+	 * @throws OutOfRangeSampleSize
+	 */
+	
+	void initializeCentroids(Data data, ClusterSet previous, Random rand, ForkJoinPool pool) throws OutOfRangeSampleSize
+	{
+		data.checkSampleSize(C.length);
+		
+		int n = data.getNumberOfExamples();
+		int kPrev = Math.min(previous.getLen(), C.length);
+		Tuple[] centroids = new Tuple[C.length];
+		boolean[] chosen = new boolean[n];
+		double[] minDist = new double[n];
+		int threshold = (pool != null) ? Math.max(MIN_CHUNK_SIZE, n / (4 * pool.getParallelism())) : n;
+		
+		for(int c = 0; c < kPrev; c++)
+			centroids[c] = previous.get(c).getCentroid().copy();
+		
+		Arrays.fill(minDist, Double.MAX_VALUE);
+		EncodedTuple[] last = new EncodedTuple[kPrev];
+		for(int c = 0; c < kPrev; c++)
+			last[c] = data.encode(centroids[c]);
+		
+		for(int c = kPrev; c < C.length; c++){
+			SeedingTask task = new SeedingTask(last, minDist, null, 0, data, 0, n, threshold);
+			double total = (pool != null) ? pool.invoke(task) : task.compute();
+			int row = drawRow(data, minDist, total, chosen, rand);
+			
+			chosen[row] = true;
+			centroids[c] = data.getItemSet(row);
+			last = new EncodedTuple[]{data.encode(centroids[c])};
 		}
+		
+		initializeCentroids(data, centroids);
+	}
+	
+	/**
+	 * Crea un cluster per ciascuno dei centroidi indicati e azzera il vettore di assegnamento.
+	 * 
+	 * @param data		La tabella rappresentata dalla classe {@link data.Data}
+	 * @param centroids I centroidi iniziali (uno per cluster)
+	 */
+	
+	void initializeCentroids(Data data, Tuple[] centroids)
+	{
+		assignment = new int[data.getNumberOfExamples()];
+		Arrays.fill(assignment, -1);
+		clusterSizes = new int[C.length];
+		clusterWeights = new long[C.length];
+		members = null;
+		this.data = data;
+		stats = new PrototypeAccumulator(data, C.length);
+		statsValid = true;
+		
+		for(int i=0; i<centroids.length; i++)
+			add(new Cluster(this, this.i, centroids[i]));
+	}
+	
+	/**
+	 * Elimina i cluster di indice maggiore o uguale a k, che non devono contenere righe:
+	 * consente ai motori che non partono dai centroidi iniziali di produrre meno cluster di
+	 * quelli richiesti (vedi {@link BisectingEngine}).
+	 * 
+	 * @param k Numero di cluster da mantenere
+	 * 
+	 * @throws IllegalStateException Se uno dei cluster da eliminare contiene righe
+	 */
+	
+	void truncate(int k)
+	{
+		for(int c = k; c < C.length; c++)
+			if(clusterSizes[c] > 0)
+				throw new IllegalStateException("Il cluster " + c + " contiene righe");
+		
+		C = Arrays.copyOf(C, k);
+		clusterSizes = Arrays.copyOf(clusterSizes, k);
+		clusterWeights = Arrays.copyOf(clusterWeights, k);
+		i = Math.min(i, k);
+		members = null;
 	}
 	
 	/**
@@ -107,6 +609,21 @@ public class ClusterSet implements Serializable {
 	 */
 	
 	Cluster nearestCluster(Tuple tuple)
+	{
+		return get(nearestClusterIndex(tuple));
+	}
+	
+	/**
+	 * Calcola la distanza tra la tupla riferita da tuple ed il centroide di ciascun 
+	 * cluster in C e restituisce l'indice del cluster più vicino. A parit&agrave di
+	 * distanza prevale il cluster con indice minore.
+	 * 
+	 * @param tuple Tupla da considerare.
+	 * 
+	 * @return Indice del cluster più vicino alla tupla passata come paramentro.
+	 */
+	
+	int nearestClusterIndex(Tuple tuple)
 	{
 		int i, ind = 0;
 		double minDist = tuple.getDistance(C[0].getCentroid());
@@ -120,9 +637,147 @@ public class ClusterSet implements Serializable {
 			}
 		}
 		
-		return get(ind);
+		return ind;
 	}
+
+	/**
+	 * Calcola la distanza tra la riga su cui &egrave posizionato il cursore row e ciascun
+	 * centroide e restituisce l'indice del cluster pi&ugrave vicino, con la stessa regola di
+	 * {@link #nearestClusterIndex(Tuple)}.
+	 * 
+	 * @param row		Il cursore posizionato sulla riga da considerare
+	 * @param centroids I centroidi codificati ({@link #encodeCentroids(Data)})
+	 * 
+	 * @return Indice del cluster pi&ugrave vicino alla riga
+	 */
 	
+	int nearestClusterIndex(RowCursor row, EncodedTuple[] centroids)
+	{
+		int ind = 0;
+		double minDist = row.distance(centroids[0]);
+		
+		for(int c = 1; c < centroids.length; c++){
+			double currDist = row.distance(centroids[c]);
+			if(minDist > currDist){
+				minDist = currDist;
+				ind = c;
+			}
+		}
+		
+		return ind;
+	}
+
+	/**
+	 * Codifica i centroidi di tutti i cluster per il calcolo delle distanze per colonne.
+	 *
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 *
+	 * @return Il centroide codificato di ciascun cluster
+	 * @see data.Data#encode(Tuple)
+	 */
+
+	EncodedTuple[] encodeCentroids(Data data)
+	{
+		EncodedTuple[] centroids = new EncodedTuple[C.length];
+
+		for(int c = 0; c < C.length; c++)
+			centroids[c] = data.encode(C[c].getCentroid());
+
+		return centroids;
+	}
+
+	/**
+	 * Calcola per ciascuna riga da from (inclusa) a to (esclusa) l'indice del cluster
+	 * pi&ugrave vicino, con la stessa regola di {@link #nearestClusterIndex(Tuple)}, e lo
+	 * scrive in nearest[riga]; se minDist non &egrave null vi scrive anche la distanza
+	 * dal centroide pi&ugrave vicino (minDist[riga]).<br>
+	 * Le distanze vengono calcolate per colonne
+	 * ({@link data.Data#distances(EncodedTuple, int, int, double[])}) e per tessere: le righe
+	 * sono suddivise in gruppi di {@link #ROW_PANEL} righe e i centroidi in gruppi di
+	 * {@link #CENTROID_BLOCK}; ciascun gruppo di centroidi viene confrontato con tutti i
+	 * blocchi di {@link #BLOCK_SIZE} righe del gruppo di righe prima di passare al successivo.
+	 * Sia le righe sia i centroidi di una tessera restano cos&igrave nella cache mentre
+	 * vengono riutilizzati, invece di far scorrere tutti i centroidi per ciascuna riga.
+	 *
+	 * @param data		La tabella rappresentata dalla classe {@link data.Data}
+	 * @param centroids I centroidi codificati ({@link #encodeCentroids(Data)})
+	 * @param from		Prima riga (inclusa)
+	 * @param to		Ultima riga (esclusa)
+	 * @param nearest	Il vettore in cui scrivere il cluster pi&ugrave vicino a ciascuna riga
+	 * @param minDist	Il vettore in cui scrivere la distanza minima di ciascuna riga (oppure null)
+	 */
+
+	void nearestClusters(Data data, EncodedTuple[] centroids, int from, int to, int[] nearest, double[] minDist)
+	{
+		double[] dist = new double[BLOCK_SIZE];
+		double[] best = new double[Math.min(ROW_PANEL, Math.max(0, to - from))];
+
+		for(int panel = from; panel < to; panel += ROW_PANEL){
+			int panelEnd = Math.min(panel + ROW_PANEL, to);
+
+			Arrays.fill(best, Double.POSITIVE_INFINITY);
+			Arrays.fill(nearest, panel, panelEnd, 0);
+
+			for(int tile = 0; tile < centroids.length; tile += CENTROID_BLOCK){
+				int tileEnd = Math.min(tile + CENTROID_BLOCK, centroids.length);
+
+				for(int start = panel; start < panelEnd; start += BLOCK_SIZE){
+					int end = Math.min(start + BLOCK_SIZE, panelEnd);
+					int offset = start - panel;
+
+					for(int c = tile; c < tileEnd; c++){
+						data.distances(centroids[c], start, end, dist);
+						for(int j = 0; j < end - start; j++)
+							if(best[offset + j] > dist[j]){
+								best[offset + j] = dist[j];
+								nearest[start + j] = c;
+							}
+					}
+				}
+			}
+
+			if(minDist != null)
+				System.arraycopy(best, 0, minDist, panel, panelEnd - panel);
+		}
+	}
+
+	/**
+	 * Calcola le distanze tra ciascuna riga da from (inclusa) a to (esclusa) e ciascun
+	 * centroide, scrivendo in dist[riga - from][c] la distanza dal centroide c. Le distanze
+	 * vengono calcolate per tessere di righe e centroidi come in
+	 * {@link #nearestClusters(Data, EncodedTuple[], int, int, int[], double[])}.
+	 *
+	 * @param data		La tabella rappresentata dalla classe {@link data.Data}
+	 * @param centroids I centroidi codificati ({@link #encodeCentroids(Data)})
+	 * @param from		Prima riga (inclusa)
+	 * @param to		Ultima riga (esclusa)
+	 * @param dist		La matrice in cui scrivere le distanze (almeno to - from righe di
+	 * 					almeno centroids.length celle)
+	 */
+
+	void distances(Data data, EncodedTuple[] centroids, int from, int to, double[][] dist)
+	{
+		double[] block = new double[BLOCK_SIZE];
+
+		for(int panel = from; panel < to; panel += ROW_PANEL){
+			int panelEnd = Math.min(panel + ROW_PANEL, to);
+
+			for(int tile = 0; tile < centroids.length; tile += CENTROID_BLOCK){
+				int tileEnd = Math.min(tile + CENTROID_BLOCK, centroids.length);
+
+				for(int start = panel; start < panelEnd; start += BLOCK_SIZE){
+					int end = Math.min(start + BLOCK_SIZE, panelEnd);
+
+					for(int c = tile; c < tileEnd; c++){
+						data.distances(centroids[c], start, end, block);
+						for(int j = 0; j < end - start; j++)
+							dist[start - from + j][c] = block[j];
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Identifica e restituisce il cluster a cui la tupla (rappresentate l'esempio identificato da id) 
 	 * appartiene. Se la tupla non è inclusa in nessun cluster restituisce null
@@ -134,32 +789,312 @@ public class ClusterSet implements Serializable {
 	
 	public Cluster currentCluster(int id)
 	{
-		int i, ind = 0;
-		Cluster emp = null;
+		int ind = assignment[id];
 		
-		for(i = 0; i < C.length; i++)
-		{
-			if(this.get(i).contain(id)){
-				ind = i;
-				emp = get(ind);
+		if(ind < 0)
+			return null;
+		
+		return get(ind);	
+	}
+	
+	/**
+	 * Ritorna l'indice del cluster a cui appartiene la riga id, oppure -1 se la riga
+	 * non &egrave assegnata ad alcun cluster.
+	 * 
+	 * @param id Indice di una riga della tabella {@link data.Data}
+	 */
+	
+	public int getClusterIndex(int id)
+	{
+		return assignment[id];
+	}
+	
+	/**
+	 * Calcola l'obiettivo dell'algoritmo k-means per la soluzione corrente: la somma delle
+	 * distanze di ciascuna riga assegnata dal centroide del proprio cluster, moltiplicate
+	 * per il peso della riga ({@link data.Data#getWeight(int)}).
+	 * 
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * 
+	 * @return La somma delle distanze
+	 */
+	
+	public double totalDistance(Data data)
+	{
+		double total = 0;
+		EncodedTuple[] centroids = encodeCentroids(data);
+		RowCursor row = data.cursor();
+		
+		for(int id = 0; id < assignment.length; id++)
+			if(assignment[id] >= 0){
+				row.moveTo(id);
+				total += data.getWeight(id) * row.distance(centroids[assignment[id]]);
+			}
+		
+		return total;
+	}
+	
+	/**
+	 * Ritorna il numero di righe appartenenti al cluster di indice c.
+	 * 
+	 * @param c Indice del cluster
+	 */
+	
+	int getClusterSize(int c)
+	{
+		return clusterSizes[c];
+	}
+	
+	/**
+	 * Ritorna la somma dei pesi delle righe appartenenti al cluster di indice c, ovvero il
+	 * numero di tuple della base di dati che il cluster rappresenta.
+	 * 
+	 * @param c Indice del cluster
+	 */
+	
+	long getClusterWeight(int c)
+	{
+		return clusterWeights[c];
+	}
+	
+	/**
+	 * Assegna la riga id al cluster di indice c (oppure a nessun cluster se c &egrave -1),
+	 * aggiornando il numero di righe e gli aggregati dei cluster coinvolti.
+	 * 
+	 * @param id Indice di una riga della tabella {@link data.Data}
+	 * @param c	 Indice del cluster di destinazione
+	 * 
+	 * @return true se l'assegnamento della riga &egrave cambiato, false altrimenti
+	 */
+	
+	boolean assign(int id, int c)
+	{
+		int old = assignment[id];
+		
+		if(old == c)
+			return false;
+		
+		if(old >= 0){
+			clusterSizes[old]--;
+			clusterWeights[old] -= data.getWeight(id);
+			if(statsValid)
+				stats.remove(data, id, old);
+		}
+		if(c >= 0){
+			clusterSizes[c]++;
+			clusterWeights[c] += data.getWeight(id);
+			if(statsValid)
+				stats.add(data, id, c);
+		}
+		
+		assignment[id] = c;
+		members = null;
+		
+		return true;
+	}
+	
+	/**
+	 * Ricalcola il numero di righe e la somma dei pesi di ciascun cluster a partire dal
+	 * vettore di assegnamento.
+	 */
+	
+	private void recountClusterSizes()
+	{
+		Arrays.fill(clusterSizes, 0);
+		Arrays.fill(clusterWeights, 0);
+		
+		for(int id = 0; id < assignment.length; id++)
+			if(assignment[id] >= 0){
+				clusterSizes[assignment[id]]++;
+				clusterWeights[assignment[id]] += data.getWeight(id);
 			}
+		
+		members = null;
+	}
+	
+	/**
+	 * Esegue in parallelo il passo di assegnamento: ciascuna riga della tabella viene assegnata
+	 * al cluster con centroide pi&ugrave vicino. Le righe vengono suddivise in blocchi elaborati
+	 * dai thread del pool (vedi {@link AssignmentTask}).<br>
+	 * Se le righe spostate sono poche (al pi&ugrave {@link #INCREMENTAL_UPDATE_LIMIT} della
+	 * tabella) gli spostamenti vengono applicati aggiornando gli aggregati in modo incrementale,
+	 * altrimenti il vettore viene sovrascritto e gli aggregati verranno ricostruiti da
+	 * {@link #updateCentroids(Data, ForkJoinPool)}.
+	 * 
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * @param pool Il pool di thread su cui eseguire il passo
+	 * 
+	 * @return Numero di righe che hanno cambiato cluster
+	 */
+	
+	int updateAssignment(Data data, ForkJoinPool pool)
+	{
+		int n = data.getNumberOfExamples();
+		int threshold = Math.max(MIN_CHUNK_SIZE, n / (4 * pool.getParallelism()));
+		
+		int[] nearest = new int[n];
+		
+		int changed = pool.invoke(new AssignmentTask(this, encodeCentroids(data), nearest, data, 0, n, threshold));
+		
+		if(changed > INCREMENTAL_UPDATE_LIMIT * n){
+			assignment = nearest;
+			recountClusterSizes();
+			statsValid = false;
+		} else if(changed > 0){
+			for(int id = 0; id < n; id++)
+				if(assignment[id] != nearest[id])
+					assign(id, nearest[id]);
 		}
 		
-		return emp;	
+		return changed;
 	}
 	
 	/**
-	 * Calcola il nuovo centroide per ciascun cluster in C
+	 * Crea un nuovo ClusterSet con una copia dei centroidi di questo e vi assegna ciascuna
+	 * riga della tabella data al cluster con centroide pi&ugrave vicino, con un solo passo di
+	 * assegnamento (i centroidi non vengono ricalcolati). Consente di estendere a tutta la
+	 * tabella i cluster trovati su un suo campione. L'albero delle divisioni
+	 * ({@link #getHierarchy()}) viene mantenuto, con le dimensioni dei nodi calcolate sul campione.
+	 * 
+	 * @param data La tabella da assegnare (con gli stessi attributi)
+	 * @param pool Il pool di thread su cui eseguire il passo oppure null
+	 * 
+	 * @return Il nuovo ClusterSet
+	 */
+	
+	ClusterSet assignAll(Data data, ForkJoinPool pool)
+	{
+		int n = data.getNumberOfExamples();
+		Tuple[] centroids = new Tuple[C.length];
+		
+		for(int c = 0; c < C.length; c++)
+			centroids[c] = C[c].getCentroid().copy();
+		
+		ClusterSet res = new ClusterSet(C.length);
+		res.initializeCentroids(data, centroids);
+		res.hierarchy = hierarchy;
+		
+		if(pool != null)
+			res.updateAssignment(data, pool);
+		else{
+			int[] nearest = new int[n];
+			res.nearestClusters(data, res.encodeCentroids(data), 0, n, nearest, null);
+			for(int id = 0; id < n; id++)
+				res.assign(id, nearest[id]);
+		}
+		
+		return res;
+	}
+	
+	/**
+	 * Ritorna l'albero delle divisioni che ha prodotto i cluster, se sono stati calcolati
+	 * dalla variante {@link ENGINE_TYPE#BISECTING}: le foglie sono i cluster (nello stesso
+	 * ordine) e ciascun nodo interno raggruppa i cluster ottenuti dividendolo, per cui
+	 * consente di esplorare i cluster in modo gerarchico senza ripetere l'algoritmo.
+	 * L'albero viene salvato su file insieme al ClusterSet.
+	 * 
+	 * @return La radice dell'albero, oppure null se i cluster sono stati calcolati da
+	 * 		   un'altra variante
+	 * @see BisectingNode#cut(int)
+	 */
+	
+	public BisectingNode getHierarchy()
+	{
+		return hierarchy;
+	}
+	
+	/**
+	 * Imposta l'albero delle divisioni che ha prodotto i cluster.
+	 * 
+	 * @param hierarchy La radice dell'albero
+	 */
+	
+	void setHierarchy(BisectingNode hierarchy)
+	{
+		this.hierarchy = hierarchy;
+	}
+	
+	/**
+	 * Ritorna l'indice della riga in posizione pos tra le righe appartenenti al cluster c.
+	 * Le righe di ciascun cluster sono ordinate per indice crescente.
+	 * 
+	 * @param c	  Indice del cluster
+	 * @param pos Posizione della riga (tra 0 e la dimensione del cluster - 1)
+	 */
+	
+	int getMember(int c, int pos)
+	{
+		if(members == null)
+			buildMembers();
+		
+		return members[memberOffsets[c] + pos];
+	}
+	
+	/**
+	 * Ricostruisce l'indice {@link #members} a partire dal vettore di assegnamento
+	 * con un ordinamento per conteggio (tempo lineare nel numero di righe).
+	 */
+	
+	private void buildMembers()
+	{
+		int[] offsets = new int[C.length + 1];
+		
+		for(int c = 0; c < C.length; c++)
+			offsets[c + 1] = offsets[c] + clusterSizes[c];
+		
+		int[] next = Arrays.copyOf(offsets, C.length);
+		int[] rows = new int[offsets[C.length]];
+		
+		for(int id = 0; id < assignment.length; id++)
+			if(assignment[id] >= 0)
+				rows[next[assignment[id]]++] = id;
+		
+		memberOffsets = offsets;
+		members = rows;
+	}
+	
+	/**
+	 * Calcola il nuovo centroide per ciascun cluster in C con un'unica scansione della
+	 * tabella (vedi {@link #updateCentroids(Data, ForkJoinPool)}).
 	 * 
 	 * @param data La tabella rappresentata dalla classe {@link data.Data}
 	 */
 	
 	void updateCentroids(Data data)
 	{
-		int i;
+		updateCentroids(data, null);
+	}
+	
+	/**
+	 * Calcola il nuovo centroide per ciascun cluster in C a partire dagli aggregati
+	 * ({@link data.PrototypeAccumulator}) mantenuti dal ClusterSet: la media per gli attributi
+	 * continui e il valore pi&ugrave frequente per gli attributi discreti.<br>
+	 * Se gli aggregati non sono aggiornati (per esempio dopo un passo di assegnamento che ha
+	 * spostato gran parte delle righe) la tabella viene scandita una sola volta per ricostruirli.
+	 * Se pool non &egrave null la scansione viene suddivisa tra i thread del pool, ciascuno dei
+	 * quali costruisce un accumulatore parziale (vedi {@link CentroidTask}).<br>
+	 * Il centroide di un cluster vuoto non viene modificato.
+	 * 
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * @param pool Il pool di thread da utilizzare oppure null per una scansione sequenziale
+	 */
+	
+	void updateCentroids(Data data, ForkJoinPool pool)
+	{
+		if(!statsValid || this.data != data){
+			int n = data.getNumberOfExamples();
+			
+			if(pool != null)
+				stats = pool.invoke(new CentroidTask(this, data, 0, n, Math.max(MIN_CHUNK_SIZE, n / (4 * pool.getParallelism()))));
+			else
+				stats = new CentroidTask(this, data, 0, n, n).compute();
+			
+			this.data = data;
+			statsValid = true;
+		}
 		
-		for(i = 0; i < C.length; i++)
-			C[i].computeCentroid(data);
+		for(int i = 0; i < C.length; i++)
+			stats.updatePrototype(i, C[i].getCentroid());
 	}
 	
 	/**
@@ -0,0 +1,33 @@
+package mining;
+
+/**
+ * Classe enumerativa che elenca le varianti dell'algoritmo k-means eseguibili
+ * da {@link KmeansMiner}.<br>
+ * STANDARD: l'algoritmo classico, che ad ogni iterazione calcola la distanza di ciascuna
+ * riga da tutti i centroidi.<br>
+ * ELKAN: variante che mantiene limiti superiori e inferiori alle distanze (disuguaglianza
+ * triangolare) per evitare i calcoli di distanza che non possono cambiare il cluster
+ * pi&ugrave vicino; produce lo stesso risultato della variante STANDARD.<br>
+ * HAMERLY: variante che mantiene un solo limite superiore e un solo limite inferiore per
+ * riga; richiede memoria O(n) anzich&eacute O(n &middot; k) e produce lo stesso risultato
+ * della variante STANDARD.<br>
+ * YINYANG: variante per valori di k elevati che raggruppa i centroidi e mantiene per
+ * ciascuna riga un limite inferiore per gruppo, evitando di esaminare interi gruppi di
+ * centroidi; produce lo stesso risultato della variante STANDARD.<br>
+ * MINIBATCH: variante che aggiorna i centroidi su piccoli campioni casuali di righe per un
+ * numero fissato di iterazioni, seguite da un unico assegnamento completo; approssima il
+ * risultato della variante STANDARD in tempo indipendente dalla dimensione della tabella.<br>
+ * BISECTING: variante per valori di k elevati che, partendo dall'intera tabella, divide
+ * ripetutamente in due (con k = 2) il cluster con la maggiore somma delle distanze dal proprio
+ * centroide, esaminando le sole righe di tale cluster; non utilizza i centroidi iniziali,
+ * pu&ograve produrre meno di k cluster (righe identiche o tempo massimo raggiunto), produce
+ * un risultato diverso da quello della variante STANDARD e conserva l'albero delle divisioni
+ * per l'esplorazione gerarchica dei cluster (vedi {@link ClusterSet#getHierarchy()}).
+ * 
+ * @author Luca Suriano
+ * @see KmeansMiner#setEngine(ENGINE_TYPE)
+ */
+
+public enum ENGINE_TYPE {
+	STANDARD, ELKAN, HAMERLY, YINYANG, MINIBATCH, BISECTING
+}
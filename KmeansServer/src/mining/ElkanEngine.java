@@ -0,0 +1,156 @@
+package mining;
+
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.EncodedTuple;
+import data.RowCursor;
+import data.Tuple;
+import database.JobCancelledException;
+
+/**
+ * Il motore implementa la variante di Elkan dell'algoritmo k-means.<br>
+ * La distanza tra tuple ({@link Tuple#getDistance(Tuple)}) &egrave una metrica (somma di
+ * distanze assolute tra valori scalati e di distanze 0/1 tra valori discreti) e soddisfa
+ * quindi la disuguaglianza triangolare. Il motore mantiene per ciascuna riga x:<br>
+ * - un limite superiore u(x) alla distanza dal centroide del proprio cluster;<br>
+ * - un limite inferiore l(x, c) alla distanza da ciascun centroide c;<br>
+ * e, ad ogni iterazione, le distanze tra tutte le coppie di centroidi. Il calcolo della
+ * distanza tra x e il centroide c viene evitato quando i limiti dimostrano che c non pu&ograve
+ * essere il centroide pi&ugrave vicino. Dopo l'aggiornamento dei centroidi i limiti vengono
+ * corretti in base allo spostamento di ciascun centroide.<br>
+ * I confronti tengono conto della regola di {@link ClusterSet#nearestClusterIndex(Tuple)}
+ * (a parit&agrave di distanza prevale il cluster con indice minore), per cui il motore produce
+ * gli stessi assegnamenti dell'algoritmo standard.<br>
+ * La memoria aggiuntiva richiesta &egrave di n &middot; k valori double.
+ *
+ * @author Luca Suriano
+ * @see KmeansEngine
+ */
+
+class ElkanEngine extends KmeansEngine {
+
+	int run(ClusterSet C, Data data, ForkJoinPool pool) throws JobCancelledException {
+		int n = data.getNumberOfExamples();
+		int k = C.getLen();
+		double[] upper = new double[n];
+		double[][] lower = new double[n][k];
+		double[][] centerDist = new double[k][k];
+		double[] halfMin = new double[k];
+		double[] shift = new double[k];
+		RowCursor row = data.cursor();
+		EncodedTuple[] centroids = C.encodeCentroids(data);
+		int numberOfIterations = 0;
+		int moved;
+
+		start();
+
+		// prima iterazione: tutte le distanze vengono calcolate
+		C.distances(data, centroids, 0, n, lower);
+		for(int x = 0; x < n; x++){
+			int a = 0;
+
+			for(int c = 1; c < k; c++)
+				if(lower[x][c] < lower[x][a])
+					a = c;
+			upper[x] = lower[x][a];
+			C.assign(x, a);
+		}
+		distanceComputations += (long)n * k;
+		moved = n;
+
+		while(true){
+			checkCancelled();
+			numberOfIterations++;
+
+			Tuple[] old = snapshot(C);
+			C.updateCentroids(data, pool);
+			report(C, data, numberOfIterations, moved);
+
+			if(stop(numberOfIterations, moved, n, shifts(old, C, shift)))
+				break;
+			centroids = C.encodeCentroids(data);
+
+			for(int x = 0; x < n; x++){
+				double[] l = lower[x];
+				for(int c = 0; c < k; c++)
+					l[c] = Math.max(0, l[c] - shift[c]);
+				upper[x] += shift[C.getClusterIndex(x)];
+			}
+
+			for(int c = 0; c < k; c++){
+				halfMin[c] = Double.MAX_VALUE;
+				for(int j = 0; j < c; j++){
+					centerDist[c][j] = centerDist[j][c] = C.get(c).getCentroid().getDistance(C.get(j).getCentroid());
+					halfMin[c] = Math.min(halfMin[c], centerDist[c][j] / 2);
+					halfMin[j] = Math.min(halfMin[j], centerDist[c][j] / 2);
+				}
+			}
+
+			moved = 0;
+			long computed = 0;
+
+			for(int x = 0; x < n; x++){
+				int a = C.getClusterIndex(x);
+
+				// nessun altro centroide puo' essere vicino quanto quello corrente
+				if(upper[x] < halfMin[a])
+					continue;
+
+				double[] l = lower[x];
+				boolean stale = true;
+
+				row.moveTo(x);
+				for(int c = 0; c < k; c++){
+					if(c == a || pruned(c, a, upper[x], l[c], centerDist[a][c]))
+						continue;
+
+					if(stale){
+						upper[x] = l[a] = row.distance(centroids[a]);
+						computed++;
+						stale = false;
+						if(pruned(c, a, upper[x], l[c], centerDist[a][c]))
+							continue;
+					}
+
+					double d = row.distance(centroids[c]);
+					computed++;
+					l[c] = d;
+					if(d < upper[x] || (d == upper[x] && c < a)){
+						a = c;
+						upper[x] = d;
+					}
+				}
+
+				if(C.assign(x, a))
+					moved++;
+			}
+
+			distanceComputations += computed;
+			prunedDistances += (long)n * k - computed;
+		}
+
+		return numberOfIterations;
+	}
+
+	/**
+	 * Verifica se i limiti dimostrano che il centroide c non pu&ograve sostituire il
+	 * centroide corrente a: se c precede a (e quindi vincerebbe a parit&agrave di distanza)
+	 * la distanza da c deve essere strettamente maggiore del limite superiore, altrimenti
+	 * &egrave sufficiente che non sia minore.
+	 *
+	 * @param c			 Indice del centroide candidato
+	 * @param a			 Indice del centroide corrente
+	 * @param upper		 Limite superiore alla distanza dal centroide corrente
+	 * @param lower		 Limite inferiore alla distanza dal centroide candidato
+	 * @param centerDist Distanza tra i centroidi a e c
+	 *
+	 * @return true se il calcolo della distanza da c pu&ograve essere evitato
+	 */
+	private static boolean pruned(int c, int a, double upper, double lower, double centerDist){
+		if(c < a)
+			return upper < lower || upper < centerDist / 2;
+		else
+			return upper <= lower || upper <= centerDist / 2;
+	}
+}
@@ -0,0 +1,151 @@
+package mining;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import data.Attribute;
+import data.ContinuousAttribute;
+import data.Data;
+import data.DiscreteAttribute;
+import database.JobCancelledException;
+
+/**
+ * Programma di confronto tra le varianti dell'algoritmo k-means.<br>
+ * Genera una tabella sintetica in memoria (righe raggruppate attorno a centri casuali,
+ * con attributi continui e discreti) e, per k = 50, 200 e 1000, esegue l'algoritmo
+ * standard e le varianti indicate a partire dagli stessi centroidi iniziali. Per ciascuna
+ * esecuzione stampa il numero di iterazioni, il tempo impiegato, le distanze calcolate ed
+ * evitate e il numero di righe assegnate ad un cluster diverso rispetto all'algoritmo
+ * standard (che deve essere 0).<br>
+ * Utilizzo: <code>java mining.EngineBenchmark [righe] [variante ...]</code>
+ * (predefiniti: 10000 righe, variante YINYANG).
+ *
+ * @author Luca Suriano
+ * @see ENGINE_TYPE
+ */
+
+public class EngineBenchmark {
+
+	/**
+	 * Valori di k confrontati.
+	 */
+	private static final int[] K_VALUES = {50, 200, 1000};
+
+	/**
+	 * Numero di attributi continui e discreti della tabella sintetica.
+	 */
+	private static final int CONTINUOUS = 4, DISCRETE = 2;
+
+	public static void main(String[] args) throws Exception {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		List<ENGINE_TYPE> engines = new ArrayList<ENGINE_TYPE>();
+
+		for(int i = 1; i < args.length; i++)
+			engines.add(ENGINE_TYPE.valueOf(args[i].toUpperCase()));
+		if(engines.isEmpty())
+			engines.add(ENGINE_TYPE.YINYANG);
+
+		Data data = generate(n, 42);
+
+		for(int k : K_VALUES){
+			if(k > n)
+				continue;
+
+			int[] centroidIndexes = data.sampling(k);
+			System.out.println("k = " + k + " (" + n + " righe)");
+			ClusterSet reference = run(ENGINE_TYPE.STANDARD, data, centroidIndexes, null);
+			for(ENGINE_TYPE type : engines)
+				if(type != ENGINE_TYPE.STANDARD)
+					run(type, data, centroidIndexes, reference);
+		}
+	}
+
+	/**
+	 * Esegue una variante e stampa i risultati.
+	 *
+	 * @param type			  La variante
+	 * @param data			  La tabella
+	 * @param centroidIndexes Le righe da utilizzare come centroidi iniziali
+	 * @param reference		  Il risultato dell'algoritmo standard (null per l'algoritmo standard)
+	 *
+	 * @return Il ClusterSet ottenuto
+	 */
+	private static ClusterSet run(ENGINE_TYPE type, Data data, int[] centroidIndexes, ClusterSet reference) throws JobCancelledException{
+		ClusterSet C = new ClusterSet(centroidIndexes.length);
+		C.initializeCentroids(data, centroidIndexes);
+		KmeansEngine engine = KmeansEngine.create(type);
+
+		long start = System.nanoTime();
+		int iterations = engine.run(C, data, null);
+		long millis = (System.nanoTime() - start) / 1000000;
+
+		int differences = 0;
+		if(reference != null)
+			for(int x = 0; x < data.getNumberOfExamples(); x++)
+				if(C.getClusterIndex(x) != reference.getClusterIndex(x))
+					differences++;
+
+		System.out.println("  " + type + ": " + iterations + " iterazioni, " + millis + " ms, "
+				+ "distanze calcolate " + engine.getDistanceComputations() + ", evitate "
+				+ engine.getPrunedDistances() + ", differenze " + differences);
+
+		return C;
+	}
+
+	/**
+	 * Genera una tabella sintetica di n righe distribuite attorno a 100 centri casuali.
+	 *
+	 * @param n	   Numero di righe
+	 * @param seed Seme del generatore casuale
+	 *
+	 * @return La tabella generata
+	 */
+	private static Data generate(int n, long seed){
+		Random rand = new Random(seed);
+		int centers = 100, values = 5, attrLen = CONTINUOUS + DISCRETE;
+		double[][] continuousColumns = new double[attrLen][];
+		int[][] discreteColumns = new int[attrLen][];
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		double[][] center = new double[centers][CONTINUOUS];
+		int[][] centerCode = new int[centers][DISCRETE];
+
+		for(int c = 0; c < centers; c++){
+			for(int a = 0; a < CONTINUOUS; a++)
+				center[c][a] = rand.nextDouble() * 100;
+			for(int a = 0; a < DISCRETE; a++)
+				centerCode[c][a] = rand.nextInt(values);
+		}
+
+		for(int a = 0; a < CONTINUOUS; a++)
+			continuousColumns[a] = new double[n];
+		for(int a = 0; a < DISCRETE; a++)
+			discreteColumns[CONTINUOUS + a] = new int[n];
+
+		for(int x = 0; x < n; x++){
+			int c = rand.nextInt(centers);
+			for(int a = 0; a < CONTINUOUS; a++)
+				continuousColumns[a][x] = center[c][a] + rand.nextGaussian() * 5;
+			for(int a = 0; a < DISCRETE; a++)
+				discreteColumns[CONTINUOUS + a][x] = rand.nextDouble() < 0.8 ? centerCode[c][a] : rand.nextInt(values);
+		}
+
+		for(int a = 0; a < CONTINUOUS; a++){
+			double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+			for(double v : continuousColumns[a]){
+				min = Math.min(min, v);
+				max = Math.max(max, v);
+			}
+			attributes.add(new ContinuousAttribute("C" + a, a, min, max));
+		}
+
+		TreeSet<String> domain = new TreeSet<String>();
+		for(int v = 0; v < values; v++)
+			domain.add("V" + v);
+		for(int a = 0; a < DISCRETE; a++)
+			attributes.add(new DiscreteAttribute("D" + a, CONTINUOUS + a, domain));
+
+		return new Data(attributes, continuousColumns, discreteColumns);
+	}
+}
@@ -0,0 +1,160 @@
+package mining;
+
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.EncodedTuple;
+import data.RowCursor;
+import data.Tuple;
+import database.JobCancelledException;
+
+/**
+ * Il motore implementa la variante di Hamerly dell'algoritmo k-means.<br>
+ * Come {@link ElkanEngine} sfrutta la disuguaglianza triangolare, ma per ciascuna riga x
+ * mantiene soltanto due limiti:<br>
+ * - un limite superiore u(x) alla distanza dal centroide del proprio cluster;<br>
+ * - un limite inferiore l(x) alla distanza dal secondo centroide pi&ugrave vicino;<br>
+ * e, per ciascun centroide c, la met&agrave s(c) della distanza dal centroide pi&ugrave
+ * vicino a c. Se u(x) &egrave minore di s(c) o di l(x) la riga non pu&ograve cambiare
+ * cluster e nessuna distanza viene calcolata; altrimenti si ricalcolano le distanze da
+ * tutti i centroidi.<br>
+ * I confronti sono stretti, per cui a parit&agrave di distanza la scelta avviene come in
+ * {@link ClusterSet#nearestClusterIndex(Tuple)} e il motore produce gli stessi assegnamenti
+ * dell'algoritmo standard.<br>
+ * La memoria aggiuntiva richiesta &egrave di 2 &middot; n valori double.
+ *
+ * @author Luca Suriano
+ * @see KmeansEngine
+ */
+
+class HamerlyEngine extends KmeansEngine {
+
+	int run(ClusterSet C, Data data, ForkJoinPool pool) throws JobCancelledException {
+		int n = data.getNumberOfExamples();
+		int k = C.getLen();
+		double[] upper = new double[n];
+		double[] lower = new double[n];
+		double[] halfMin = new double[k];
+		double[] shift = new double[k];
+		double[] dist = new double[k];
+		RowCursor row = data.cursor();
+		EncodedTuple[] centroids = C.encodeCentroids(data);
+		int numberOfIterations = 0;
+		int moved;
+
+		start();
+
+		// prima iterazione: tutte le distanze vengono calcolate, per blocchi di righe
+		double[][] block = new double[Math.min(ClusterSet.BLOCK_SIZE, n)][k];
+		for(int start = 0; start < n; start += block.length){
+			int end = Math.min(start + block.length, n);
+
+			C.distances(data, centroids, start, end, block);
+			for(int x = start; x < end; x++)
+				C.assign(x, nearest(block[x - start], upper, lower, x));
+		}
+		block = null;
+		distanceComputations += (long)n * k;
+		moved = n;
+
+		while(true){
+			checkCancelled();
+			numberOfIterations++;
+
+			Tuple[] old = snapshot(C);
+			C.updateCentroids(data, pool);
+			report(C, data, numberOfIterations, moved);
+
+			if(stop(numberOfIterations, moved, n, shifts(old, C, shift)))
+				break;
+			centroids = C.encodeCentroids(data);
+
+			// spostamento massimo e secondo massimo dei centroidi
+			int maxShift = 0;
+			double secondShift = 0;
+			for(int c = 0; c < k; c++){
+				if(shift[c] > shift[maxShift]){
+					secondShift = shift[maxShift];
+					maxShift = c;
+				} else if(c != maxShift && shift[c] > secondShift)
+					secondShift = shift[c];
+			}
+
+			for(int x = 0; x < n; x++){
+				int a = C.getClusterIndex(x);
+				upper[x] += shift[a];
+				lower[x] = Math.max(0, lower[x] - (a == maxShift ? secondShift : shift[maxShift]));
+			}
+
+			for(int c = 0; c < k; c++){
+				halfMin[c] = Double.MAX_VALUE;
+				for(int j = 0; j < c; j++){
+					double half = C.get(c).getCentroid().getDistance(C.get(j).getCentroid()) / 2;
+					halfMin[c] = Math.min(halfMin[c], half);
+					halfMin[j] = Math.min(halfMin[j], half);
+				}
+			}
+
+			moved = 0;
+			long computed = 0;
+
+			for(int x = 0; x < n; x++){
+				int a = C.getClusterIndex(x);
+				double bound = Math.max(halfMin[a], lower[x]);
+
+				if(upper[x] < bound)
+					continue;
+
+				row.moveTo(x);
+				upper[x] = row.distance(centroids[a]);
+				computed++;
+				if(upper[x] < bound)
+					continue;
+
+				for(int c = 0; c < k; c++)
+					dist[c] = row.distance(centroids[c]);
+				a = nearest(dist, upper, lower, x);
+				computed += k;
+				if(C.assign(x, a))
+					moved++;
+			}
+
+			distanceComputations += computed;
+			prunedDistances += (long)n * k - computed;
+		}
+
+		return numberOfIterations;
+	}
+
+	/**
+	 * A partire dalle distanze della riga da tutti i centroidi, aggiorna i limiti della riga
+	 * con la distanza dal centroide pi&ugrave vicino e dal secondo pi&ugrave vicino e
+	 * ritorna l'indice del centroide pi&ugrave vicino (a parit&agrave di distanza quello
+	 * con indice minore).
+	 *
+	 * @param dist		Le distanze della riga da ciascun centroide
+	 * @param upper		Limiti superiori
+	 * @param lower		Limiti inferiori
+	 * @param x			Indice della riga
+	 *
+	 * @return Indice del centroide pi&ugrave vicino
+	 */
+	private static int nearest(double[] dist, double[] upper, double[] lower, int x){
+		int a = 0;
+		double best = Double.MAX_VALUE;
+		double second = Double.MAX_VALUE;
+
+		for(int c = 0; c < dist.length; c++){
+			double d = dist[c];
+			if(d < best){
+				second = best;
+				best = d;
+				a = c;
+			} else if(d < second)
+				second = d;
+		}
+		upper[x] = best;
+		lower[x] = second;
+		return a;
+	}
+}
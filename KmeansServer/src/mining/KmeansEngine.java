@@ -0,0 +1,346 @@
+package mining;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.Tuple;
+import database.CancellationToken;
+import database.JobCancelledException;
+
+/**
+ * La classe astratta modella una variante (motore) dell'algoritmo k-means.<br>
+ * Il motore riceve un {@link ClusterSet} i cui centroidi sono gi&agrave stati inizializzati
+ * ed esegue le iterazioni di assegnamento e di aggiornamento dei centroidi fino alla
+ * convergenza, ovvero finch&egrave un passo di assegnamento non sposta alcuna riga, oppure
+ * fino al verificarsi di uno dei criteri di arresto impostati con
+ * {@link #setConvergence(int, double, double, long)} (vedi {@link STOP_CRITERION}).<br>
+ * Ciascun motore tiene traccia del numero di distanze riga-centroide calcolate e di quelle
+ * evitate rispetto all'algoritmo standard (n &middot; k per iterazione).
+ * 
+ * @author Luca Suriano
+ * @see KmeansMiner
+ * @see ENGINE_TYPE
+ */
+
+abstract class KmeansEngine {
+	
+	/**
+	 * Numero di distanze tra righe e centroidi calcolate dal motore.
+	 */
+	protected long distanceComputations;
+	
+	/**
+	 * Numero di distanze tra righe e centroidi evitate dal motore rispetto
+	 * all'algoritmo standard.
+	 */
+	protected long prunedDistances;
+	
+	/**
+	 * Numero massimo di iterazioni (0 = nessun limite).
+	 */
+	protected int maxIterations;
+	
+	/**
+	 * Frazione minima di righe che devono cambiare cluster perch&eacute l'algoritmo
+	 * prosegua (0 = nessun limite).
+	 */
+	protected double minMovedFraction;
+	
+	/**
+	 * Spostamento dei centroidi sotto il quale l'algoritmo si arresta (0 = nessun limite).
+	 */
+	protected double shiftTolerance;
+	
+	/**
+	 * Tempo massimo di esecuzione in millisecondi (0 = nessun limite).
+	 */
+	protected long timeBudget;
+	
+	/**
+	 * Criterio che ha terminato l'ultima esecuzione.
+	 */
+	protected STOP_CRITERION stopCriterion = STOP_CRITERION.CONVERGED;
+	
+	/**
+	 * Istante di inizio dell'esecuzione corrente.
+	 */
+	private long startTime;
+	
+	/**
+	 * Token di annullamento del job, verificato ad ogni iterazione (null = nessuno).
+	 */
+	private CancellationToken token;
+	
+	/**
+	 * Osservatore dell'avanzamento (null = nessuno).
+	 */
+	private ProgressListener listener;
+	
+	/**
+	 * Generatore di numeri casuali utilizzato dalle varianti randomizzate.
+	 */
+	protected Random random = new Random();
+	
+	/**
+	 * Imposta il generatore di numeri casuali (ad esempio con un seme fissato per
+	 * ottenere esecuzioni ripetibili).
+	 * 
+	 * @param random Il generatore
+	 */
+	void setRandom(Random random){
+		this.random = random;
+	}
+	
+	/**
+	 * Imposta il token di annullamento del job: il motore lo verifica all'inizio di ogni
+	 * iterazione e, se il job &egrave stato annullato, interrompe l'esecuzione.
+	 * 
+	 * @param token Il token
+	 */
+	void setCancellationToken(CancellationToken token){
+		this.token = token;
+	}
+	
+	/**
+	 * Imposta l'osservatore da notificare al termine di ciascuna iterazione.
+	 * 
+	 * @param listener L'osservatore
+	 */
+	void setProgressListener(ProgressListener listener){
+		this.listener = listener;
+	}
+	
+	/**
+	 * Esegue l'algoritmo fino alla convergenza.
+	 * 
+	 * @param C	   Il ClusterSet con i centroidi iniziali
+	 * @param data La tabella su cui eseguire l'algoritmo
+	 * @param pool Il pool di thread da utilizzare oppure null per un'esecuzione sequenziale
+	 * 
+	 * @return Numero di iterazioni eseguite
+	 * @throws JobCancelledException Se il job viene annullato durante l'esecuzione
+	 */
+	abstract int run(ClusterSet C, Data data, ForkJoinPool pool) throws JobCancelledException;
+	
+	/**
+	 * Indica se il motore parte dai centroidi iniziali del ClusterSet. In caso contrario
+	 * (ad esempio {@link BisectingEngine}) i chiamanti si limitano a creare i cluster
+	 * ({@link ClusterSet#initializeFirstRows(Data)}).
+	 * 
+	 * @return true se il motore utilizza i centroidi iniziali
+	 */
+	boolean usesInitialCentroids(){
+		return true;
+	}
+	
+	/**
+	 * Verifica il token di annullamento; va richiamato all'inizio di ogni iterazione.
+	 * 
+	 * @throws JobCancelledException Se il job &egrave stato annullato
+	 */
+	protected void checkCancelled() throws JobCancelledException{
+		if(token != null)
+			token.check();
+	}
+	
+	/**
+	 * Imposta i criteri di arresto aggiuntivi rispetto alla convergenza (un valore pari
+	 * a 0 disattiva il relativo criterio).
+	 * 
+	 * @param maxIterations	   Numero massimo di iterazioni
+	 * @param minMovedFraction Frazione minima di righe che devono cambiare cluster
+	 * @param shiftTolerance   Spostamento massimo dei centroidi sotto il quale arrestarsi
+	 * @param timeBudget	   Tempo massimo di esecuzione in millisecondi
+	 */
+	void setConvergence(int maxIterations, double minMovedFraction, double shiftTolerance, long timeBudget){
+		this.maxIterations = maxIterations;
+		this.minMovedFraction = minMovedFraction;
+		this.shiftTolerance = shiftTolerance;
+		this.timeBudget = timeBudget;
+	}
+	
+	/**
+	 * Registra l'inizio dell'esecuzione; va richiamato all'inizio di {@link #run(ClusterSet, Data, ForkJoinPool)}.
+	 */
+	protected void start(){
+		startTime = System.currentTimeMillis();
+		stopCriterion = STOP_CRITERION.CONVERGED;
+	}
+	
+	/**
+	 * Verifica, al termine di un'iterazione (assegnamento e aggiornamento dei centroidi),
+	 * se l'algoritmo deve arrestarsi e in tal caso registra il criterio soddisfatto.
+	 * 
+	 * @param iterations Numero di iterazioni eseguite
+	 * @param moved		 Numero di righe che hanno cambiato cluster nell'iterazione
+	 * @param n			 Numero di righe della tabella
+	 * @param maxShift	 Massimo spostamento dei centroidi nell'iterazione
+	 * 
+	 * @return true se l'algoritmo deve arrestarsi
+	 */
+	protected boolean stop(int iterations, int moved, int n, double maxShift){
+		if(moved == 0)
+			stopCriterion = STOP_CRITERION.CONVERGED;
+		else if(moved < minMovedFraction * n)
+			stopCriterion = STOP_CRITERION.MIN_MOVED;
+		else if(shiftTolerance > 0 && maxShift <= shiftTolerance)
+			stopCriterion = STOP_CRITERION.MAX_SHIFT;
+		else
+			return budgetExceeded(iterations);
+		
+		return true;
+	}
+	
+	/**
+	 * Verifica se sono stati raggiunti il numero massimo di iterazioni o il tempo massimo
+	 * di esecuzione e in tal caso registra il criterio soddisfatto.
+	 * 
+	 * @param iterations Numero di iterazioni eseguite
+	 * 
+	 * @return true se l'algoritmo deve arrestarsi
+	 */
+	protected boolean budgetExceeded(int iterations){
+		if(maxIterations > 0 && iterations >= maxIterations)
+			stopCriterion = STOP_CRITERION.MAX_ITERATIONS;
+		else if(timeBudget > 0 && System.currentTimeMillis() - startTime >= timeBudget)
+			stopCriterion = STOP_CRITERION.TIME_BUDGET;
+		else
+			return false;
+		
+		return true;
+	}
+	
+	/**
+	 * Ritorna true se &egrave stato impostato un osservatore dell'avanzamento.
+	 */
+	protected boolean isReporting(){
+		return listener != null;
+	}
+	
+	/**
+	 * Notifica all'osservatore (se presente) il termine di un'iterazione, calcolando
+	 * l'obiettivo sulla soluzione corrente (n distanze, solo se l'osservatore &egrave presente).
+	 * 
+	 * @param C			 Il ClusterSet aggiornato
+	 * @param data		 La tabella
+	 * @param iterations Numero di iterazioni eseguite
+	 * @param moved		 Numero di righe che hanno cambiato cluster nell'iterazione
+	 */
+	protected void report(ClusterSet C, Data data, int iterations, int moved){
+		if(listener != null)
+			report(C, iterations, moved, C.totalDistance(data));
+	}
+	
+	/**
+	 * Notifica all'osservatore (se presente) il termine di un'iterazione. Le notifiche
+	 * sono serializzate sull'osservatore, che pu&ograve essere condiviso da pi&ugrave motori.
+	 * 
+	 * @param C			 Il ClusterSet aggiornato
+	 * @param iterations Numero di iterazioni eseguite
+	 * @param moved		 Numero di righe che hanno cambiato cluster nell'iterazione
+	 * @param objective	 L'obiettivo della soluzione corrente
+	 */
+	protected void report(ClusterSet C, int iterations, int moved, double objective){
+		if(listener == null)
+			return;
+		
+		synchronized(listener){
+			listener.iterationCompleted(iterations, moved, objective, System.currentTimeMillis() - startTime, C);
+		}
+	}
+	
+	/**
+	 * Copia i centroidi correnti, per misurarne lo spostamento dopo l'aggiornamento.
+	 * 
+	 * @param C Il ClusterSet
+	 * 
+	 * @return Le copie dei centroidi
+	 */
+	protected static Tuple[] snapshot(ClusterSet C){
+		Tuple[] old = new Tuple[C.getLen()];
+		
+		for(int c = 0; c < old.length; c++)
+			old[c] = C.get(c).getCentroid().copy();
+		
+		return old;
+	}
+	
+	/**
+	 * Calcola lo spostamento di ciascun centroide rispetto alle copie old.
+	 * 
+	 * @param old	Le copie dei centroidi prima dell'aggiornamento
+	 * @param C		Il ClusterSet aggiornato
+	 * @param shift Il vettore in cui scrivere gli spostamenti
+	 * 
+	 * @return Lo spostamento massimo
+	 */
+	protected static double shifts(Tuple[] old, ClusterSet C, double[] shift){
+		double max = 0;
+		
+		for(int c = 0; c < old.length; c++){
+			shift[c] = old[c].getDistance(C.get(c).getCentroid());
+			max = Math.max(max, shift[c]);
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * Ritorna il criterio che ha terminato l'ultima esecuzione.
+	 */
+	STOP_CRITERION getStopCriterion(){
+		return stopCriterion;
+	}
+	
+	/**
+	 * Ritorna il numero di distanze tra righe e centroidi calcolate.
+	 */
+	long getDistanceComputations(){
+		return distanceComputations;
+	}
+	
+	/**
+	 * Ritorna il numero di distanze tra righe e centroidi evitate.
+	 */
+	long getPrunedDistances(){
+		return prunedDistances;
+	}
+	
+	/**
+	 * Crea il motore corrispondente al tipo specificato, con i parametri predefiniti.
+	 * 
+	 * @param type Il tipo di motore
+	 * 
+	 * @return Un nuovo motore
+	 */
+	static KmeansEngine create(ENGINE_TYPE type){
+		return create(type, MiniBatchEngine.DEFAULT_BATCH_SIZE, MiniBatchEngine.DEFAULT_BATCH_ITERATIONS);
+	}
+	
+	/**
+	 * Crea il motore corrispondente al tipo specificato.
+	 * 
+	 * @param type			  Il tipo di motore
+	 * @param batchSize		  Dimensione del campione (solo per {@link ENGINE_TYPE#MINIBATCH})
+	 * @param batchIterations Numero di iterazioni sui campioni (solo per {@link ENGINE_TYPE#MINIBATCH})
+	 * 
+	 * @return Un nuovo motore
+	 */
+	static KmeansEngine create(ENGINE_TYPE type, int batchSize, int batchIterations){
+		switch(type){
+		case ELKAN:
+			return new ElkanEngine();
+		case HAMERLY:
+			return new HamerlyEngine();
+		case YINYANG:
+			return new YinyangEngine();
+		case MINIBATCH:
+			return new MiniBatchEngine(batchSize, batchIterations);
+		case BISECTING:
+			return new BisectingEngine();
+		default:
+			return new StandardEngine();
+		}
+	}
+}
@@ -8,11 +8,24 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import data.Attribute;
 import data.Data;
 import data.OutOfRangeSampleSize;
 import data.Tuple;
+import database.CancellationToken;
+import database.DBAccess;
+import database.DatabaseConnectionException;
+import database.EmptySetException;
+import database.JobCancelledException;
+import database.TableData;
 
 /**
  * La classe KmeansMiner &egrave la classe che si occupa di effettuare la scoperta
@@ -29,7 +42,10 @@ import data.Tuple;
  * scoprire &egrave 50 il nome del file salvato sar&agrave:<br>
  * <center>playtennis50</center><br>
  * Tale file sar&agrave utilizzato nel caso in cui si richiama la funzionalit&agrave di lettura 
- * dell'attivit&agrave di scoperta da file piuttosto che dalla base di dati.
+ * dell'attivit&agrave di scoperta da file piuttosto che dalla base di dati.<br>
+ * Se la tabella &egrave stata caricata in forma raggruppata ({@link data.Data#getWeight(int)})
+ * centroidi, obiettivo e dimensioni dei cluster vengono calcolati pesando ciascuna riga con
+ * il numero delle sue occorrenze.
  *  
  * @author Luca Suriano
  * @see Cluster
@@ -48,6 +64,123 @@ public class KmeansMiner implements Serializable{
 	 */
 	private ClusterSet C;
 	
+	/**
+	 * Numero di thread utilizzati dal passo di assegnamento. Con il valore 1 (predefinito)
+	 * l'algoritmo viene eseguito interamente nel thread chiamante.
+	 */
+	private int parallelism = 1;
+	
+	/**
+	 * Variante dell'algoritmo da eseguire (predefinita: {@link ENGINE_TYPE#STANDARD}).
+	 */
+	private ENGINE_TYPE engineType = ENGINE_TYPE.STANDARD;
+	
+	/**
+	 * Numero di righe estratte ad ogni iterazione della variante {@link ENGINE_TYPE#MINIBATCH}.
+	 */
+	private int batchSize = MiniBatchEngine.DEFAULT_BATCH_SIZE;
+	
+	/**
+	 * Numero di iterazioni della variante {@link ENGINE_TYPE#MINIBATCH}.
+	 */
+	private int batchIterations = MiniBatchEngine.DEFAULT_BATCH_ITERATIONS;
+	
+	/**
+	 * Strategia di scelta dei centroidi iniziali (predefinita: {@link SEEDING_TYPE#RANDOM}).
+	 */
+	private SEEDING_TYPE seeding = SEEDING_TYPE.RANDOM;
+	
+	/**
+	 * Seme del generatore di numeri casuali, oppure null per un seme diverso ad ogni
+	 * esecuzione.
+	 */
+	private Long seed;
+	
+	/**
+	 * Numero massimo di iterazioni (0 = nessun limite).
+	 */
+	private int maxIterations;
+	
+	/**
+	 * Frazione minima di righe che devono cambiare cluster perch&eacute l'algoritmo
+	 * prosegua (0 = nessun limite).
+	 */
+	private double minMovedFraction;
+	
+	/**
+	 * Spostamento dei centroidi sotto il quale l'algoritmo si arresta (0 = nessun limite).
+	 */
+	private double shiftTolerance;
+	
+	/**
+	 * Tempo massimo di esecuzione in millisecondi (0 = nessun limite).
+	 */
+	private long timeBudget;
+	
+	/**
+	 * Criterio che ha terminato l'ultima esecuzione (del riavvio mantenuto).
+	 */
+	private STOP_CRITERION stopCriterion = STOP_CRITERION.CONVERGED;
+	
+	/**
+	 * Token di annullamento dei job eseguiti dal miner (null = nessuno).
+	 */
+	private transient CancellationToken token;
+	
+	/**
+	 * Osservatore dell'avanzamento dei job eseguiti dal miner (null = nessuno).
+	 */
+	private transient ProgressListener listener;
+	
+	/**
+	 * Numero di esecuzioni indipendenti (riavvii) di {@link #kmeans(Data)}, delle quali
+	 * viene mantenuta quella con l'obiettivo minore (predefinito: 1).
+	 */
+	private int restarts = 1;
+	
+	/**
+	 * Obiettivo (somma delle distanze delle righe dai centroidi) di ciascun riavvio
+	 * dell'ultima esecuzione.
+	 */
+	private double[] restartObjectives = new double[0];
+	
+	/**
+	 * Numero di iterazioni di ciascun riavvio dell'ultima esecuzione.
+	 */
+	private int[] restartIterations = new int[0];
+	
+	/**
+	 * Indice del riavvio mantenuto nell'ultima esecuzione.
+	 */
+	private int bestRestart;
+	
+	/**
+	 * Numero di distanze tra righe e centroidi calcolate nell'ultima esecuzione.
+	 */
+	private long distanceComputations;
+	
+	/**
+	 * Numero di distanze tra righe e centroidi evitate nell'ultima esecuzione
+	 * rispetto all'algoritmo standard.
+	 */
+	private long prunedDistances;
+	
+	/**
+	 * Frazione delle righe della tabella su cui {@link #kmeans(Data)} esegue l'algoritmo
+	 * (1 = l'intera tabella, predefinito).
+	 */
+	private double sampleFraction = 1;
+	
+	/**
+	 * Numero di righe su cui &egrave stato eseguito l'algoritmo nell'ultima esecuzione.
+	 */
+	private int sampleSize;
+	
+	/**
+	 * Obiettivo dell'ultima esecuzione calcolato sull'intera tabella.
+	 */
+	private double objective;
+	
 	/**
 	 * Il costruttore si occupa di inizializzare il ClusterSet in base
 	 * al numero di Cluster che si vuole scoprire.
@@ -104,6 +237,283 @@ public class KmeansMiner implements Serializable{
          outputFile.close(); 
 	}
 	
+	/**
+	 * Imposta il numero di thread da utilizzare nell'esecuzione dell'algoritmo.
+	 * Il valore viene limitato all'intervallo [1, numero di processori disponibili].
+	 * 
+	 * @param threads Numero di thread richiesti
+	 */
+	
+	public void setParallelism(int threads){
+		this.parallelism = Math.max(1, Math.min(threads, Runtime.getRuntime().availableProcessors()));
+	}
+	
+	/**
+	 * Ritorna il numero di thread utilizzati nell'esecuzione dell'algoritmo.
+	 */
+	
+	public int getParallelism(){
+		return parallelism;
+	}
+	
+	/**
+	 * Imposta la variante dell'algoritmo k-means da eseguire.
+	 * 
+	 * @param type La variante da eseguire
+	 * @see ENGINE_TYPE
+	 */
+	
+	public void setEngine(ENGINE_TYPE type){
+		this.engineType = type;
+	}
+	
+	/**
+	 * Ritorna la variante dell'algoritmo k-means eseguita.
+	 */
+	
+	public ENGINE_TYPE getEngine(){
+		return engineType;
+	}
+	
+	/**
+	 * Imposta i parametri della variante {@link ENGINE_TYPE#MINIBATCH}.
+	 * 
+	 * @param batchSize		  Numero di righe estratte ad ogni iterazione
+	 * @param batchIterations Numero di iterazioni sui campioni
+	 * 
+	 * @throws IllegalArgumentException Se uno dei valori non &egrave positivo
+	 */
+	
+	public void setMiniBatch(int batchSize, int batchIterations){
+		if(batchSize < 1 || batchIterations < 1)
+			throw new IllegalArgumentException("Parametri mini-batch non validi");
+		this.batchSize = batchSize;
+		this.batchIterations = batchIterations;
+	}
+	
+	/**
+	 * Ritorna il numero di righe estratte ad ogni iterazione della variante mini-batch.
+	 */
+	
+	public int getBatchSize(){
+		return batchSize;
+	}
+	
+	/**
+	 * Ritorna il numero di iterazioni della variante mini-batch.
+	 */
+	
+	public int getBatchIterations(){
+		return batchIterations;
+	}
+	
+	/**
+	 * Imposta la strategia di scelta dei centroidi iniziali.
+	 * 
+	 * @param seeding La strategia
+	 * @see SEEDING_TYPE
+	 */
+	
+	public void setSeeding(SEEDING_TYPE seeding){
+		this.seeding = seeding;
+	}
+	
+	/**
+	 * Ritorna la strategia di scelta dei centroidi iniziali.
+	 */
+	
+	public SEEDING_TYPE getSeeding(){
+		return seeding;
+	}
+	
+	/**
+	 * Fissa il seme del generatore di numeri casuali utilizzato dalla scelta dei centroidi
+	 * iniziali e dalle varianti randomizzate: a parit&agrave di tabella e di parametri
+	 * l'esecuzione produce sempre lo stesso risultato.
+	 * 
+	 * @param seed Il seme
+	 */
+	
+	public void setSeed(long seed){
+		this.seed = seed;
+	}
+	
+	/**
+	 * Imposta la frazione delle righe della tabella su cui eseguire l'algoritmo: con un
+	 * valore minore di 1 {@link #kmeans(Data)} esegue l'algoritmo fino alla convergenza su un
+	 * campione casuale della tabella (di almeno k righe) e assegna poi tutte le righe ai
+	 * centroidi ottenuti con un unico passo di assegnamento, eseguito in parallelo se il
+	 * numero di thread &egrave maggiore di 1 (vedi {@link ClusterSet#assignAll(Data, ForkJoinPool)}).
+	 * Il risultato &egrave approssimato, ma il costo delle iterazioni dipende dalla dimensione
+	 * del campione e non da quella della tabella.
+	 * 
+	 * @param sampleFraction La frazione delle righe (compresa tra 0 escluso e 1)
+	 * 
+	 * @throws IllegalArgumentException Se la frazione non &egrave compresa tra 0 (escluso) e 1
+	 */
+	
+	public void setSampleFraction(double sampleFraction){
+		if(!(sampleFraction > 0 && sampleFraction <= 1))
+			throw new IllegalArgumentException("Frazione del campione non valida: " + sampleFraction);
+		this.sampleFraction = sampleFraction;
+	}
+	
+	/**
+	 * Ritorna la frazione delle righe della tabella su cui viene eseguito l'algoritmo.
+	 */
+	
+	public double getSampleFraction(){
+		return sampleFraction;
+	}
+	
+	/**
+	 * Ritorna il numero di righe su cui &egrave stato eseguito l'algoritmo nell'ultima
+	 * esecuzione di {@link #kmeans(Data)} (l'intera tabella se la frazione &egrave 1).
+	 */
+	
+	public int getSampleSize(){
+		return sampleSize;
+	}
+	
+	/**
+	 * Ritorna l'obiettivo (somma delle distanze delle righe dai centroidi dei propri cluster)
+	 * dell'ultima esecuzione di {@link #kmeans(Data)}, calcolato sull'intera tabella.
+	 */
+	
+	public double getObjective(){
+		return objective;
+	}
+	
+	/**
+	 * Imposta i criteri di arresto dell'algoritmo, in aggiunta alla convergenza (nessuna
+	 * riga cambia cluster). Un valore pari a 0 disattiva il relativo criterio.
+	 * Il tempo massimo si applica a ciascuna esecuzione (riavvio o valore di k).
+	 * 
+	 * @param maxIterations	   Numero massimo di iterazioni
+	 * @param minMovedFraction Frazione minima (tra 0 e 1) di righe che devono cambiare
+	 * 						   cluster perch&eacute l'algoritmo prosegua
+	 * @param shiftTolerance   Spostamento massimo dei centroidi (secondo la distanza tra
+	 * 						   tuple) sotto il quale l'algoritmo si arresta
+	 * @param timeBudget	   Tempo massimo di esecuzione in millisecondi
+	 * 
+	 * @throws IllegalArgumentException Se uno dei valori non &egrave valido
+	 */
+	
+	public void setConvergence(int maxIterations, double minMovedFraction, double shiftTolerance, long timeBudget){
+		if(maxIterations < 0 || minMovedFraction < 0 || minMovedFraction > 1 || shiftTolerance < 0 || timeBudget < 0)
+			throw new IllegalArgumentException("Criteri di arresto non validi");
+		this.maxIterations = maxIterations;
+		this.minMovedFraction = minMovedFraction;
+		this.shiftTolerance = shiftTolerance;
+		this.timeBudget = timeBudget;
+	}
+	
+	/**
+	 * Ritorna il criterio che ha terminato l'ultima esecuzione di {@link #kmeans(Data)}
+	 * (nel caso di pi&ugrave riavvii, quello del riavvio mantenuto).
+	 */
+	
+	public STOP_CRITERION getStopCriterion(){
+		return stopCriterion;
+	}
+	
+	/**
+	 * Imposta il token di annullamento: {@link #kmeans(Data)} e {@link #sweep(Data, int, int, boolean)}
+	 * lo verificano ad ogni iterazione e, se il job viene annullato (ad esempio perch&eacute
+	 * il client si &egrave disconnesso), si interrompono sollevando JobCancelledException.
+	 * 
+	 * @param token Il token
+	 */
+	
+	public void setCancellationToken(CancellationToken token){
+		this.token = token;
+	}
+	
+	/**
+	 * Imposta l'osservatore da notificare al termine di ciascuna iterazione di
+	 * {@link #kmeans(Data)} e {@link #sweep(Data, int, int, boolean)}, con il numero di
+	 * righe che hanno cambiato cluster, l'obiettivo corrente e il tempo trascorso.
+	 * Il calcolo dell'obiettivo richiede n distanze per iterazione e viene effettuato
+	 * solo in presenza di un osservatore.
+	 * 
+	 * @param listener L'osservatore, oppure null per nessuno
+	 * @see ProgressListener
+	 */
+	
+	public void setProgressListener(ProgressListener listener){
+		this.listener = listener;
+	}
+	
+	/**
+	 * Imposta il numero di riavvii: l'algoritmo viene eseguito restarts volte, a partire da
+	 * centroidi iniziali diversi, e viene mantenuto l'insieme di cluster con la minore somma
+	 * delle distanze delle righe dai propri centroidi. I riavvii vengono eseguiti
+	 * contemporaneamente sui thread impostati con {@link #setParallelism(int)}, condividendo
+	 * la stessa tabella.
+	 * 
+	 * @param restarts Numero di riavvii
+	 * 
+	 * @throws IllegalArgumentException Se restarts non &egrave positivo
+	 */
+	
+	public void setRestarts(int restarts){
+		if(restarts < 1)
+			throw new IllegalArgumentException("Numero di riavvii non valido");
+		this.restarts = restarts;
+	}
+	
+	/**
+	 * Ritorna il numero di riavvii.
+	 */
+	
+	public int getRestarts(){
+		return restarts;
+	}
+	
+	/**
+	 * Ritorna l'obiettivo (somma delle distanze delle righe dai centroidi dei propri
+	 * cluster) di ciascun riavvio dell'ultima esecuzione di {@link #kmeans(Data)}.
+	 */
+	
+	public double[] getRestartObjectives(){
+		return restartObjectives;
+	}
+	
+	/**
+	 * Ritorna il numero di iterazioni di ciascun riavvio dell'ultima esecuzione
+	 * di {@link #kmeans(Data)}.
+	 */
+	
+	public int[] getRestartIterations(){
+		return restartIterations;
+	}
+	
+	/**
+	 * Ritorna l'indice del riavvio mantenuto nell'ultima esecuzione di {@link #kmeans(Data)}.
+	 */
+	
+	public int getBestRestart(){
+		return bestRestart;
+	}
+	
+	/**
+	 * Ritorna il numero di distanze tra righe e centroidi calcolate nell'ultima
+	 * esecuzione di {@link #kmeans(Data)}.
+	 */
+	
+	public long getDistanceComputations(){
+		return distanceComputations;
+	}
+	
+	/**
+	 * Ritorna il numero di distanze tra righe e centroidi che l'ultima esecuzione di
+	 * {@link #kmeans(Data)} ha evitato di calcolare rispetto all'algoritmo standard.
+	 */
+	
+	public long getPrunedDistances(){
+		return prunedDistances;
+	}
+	
 	/**
 	 * Ritorna il ClusterSet {@link #C}
 	 */
@@ -159,14 +569,31 @@ public class KmeansMiner implements Serializable{
 	
 	/**
 	 * Il metodo esegue l'algoritmo k-means eseguendo i seguenti passi:<br>
-	 * 1. Scelta casuale di centroidi per k clusters assegnandoli al ClusterSet.<br>
+	 * 1. Scelta casuale di centroidi per k clusters assegnandoli al ClusterSet (secondo la
+	 * 	  strategia impostata con {@link #setSeeding(SEEDING_TYPE)}).<br>
 	 * 2. Assegnazione di ciascuna riga della matrice in data al cluster avente 
 	 * 	  centroide pi&ugrave vicino all'esempio (utilizzando il metodo 
 	 * 	  {@link ClusterSet#nearestCluster(Tuple)}).
 	 * 3. Calcolo dei nuovi centroidi per ciascun cluster (utilizzando il metodo
 	 * 	  {@link ClusterSet#updateCentroids(Data)}<br>
 	 * 4. Ripete i passi 2 e 3 finch&egravé due iterazioni consecuitive non restituiscono 
-	 * 	  centroidi uguali.<br>
+	 * 	  centroidi uguali, oppure fino al verificarsi di uno dei criteri impostati con
+	 * 	  {@link #setConvergence(int, double, double, long)} (vedi {@link #getStopCriterion()}).<br>
+	 * Se il numero di thread impostato con {@link #setParallelism(int)} &egrave maggiore di 1
+	 * i passi 2 e 3 vengono eseguiti in parallelo su un {@link java.util.concurrent.ForkJoinPool}
+	 * creato per la sola durata dell'esecuzione (vedi 
+	 * {@link ClusterSet#updateAssignment(Data, ForkJoinPool)} e
+	 * {@link ClusterSet#updateCentroids(Data, ForkJoinPool)}).<br>
+	 * I passi 2-4 sono eseguiti dal motore corrispondente alla variante impostata con
+	 * {@link #setEngine(ENGINE_TYPE)} (vedi {@link KmeansEngine}); la variante
+	 * {@link ENGINE_TYPE#BISECTING} sostituisce i passi 1-4 con le divisioni successive dei
+	 * cluster e conserva l'albero delle divisioni ({@link ClusterSet#getHierarchy()}).<br>
+	 * Se il numero di riavvii impostato con {@link #setRestarts(int)} &egrave maggiore di 1
+	 * i passi 1-4 vengono ripetuti in modo indipendente e viene mantenuto il risultato con
+	 * l'obiettivo minore.<br>
+	 * Se la frazione impostata con {@link #setSampleFraction(double)} &egrave minore di 1
+	 * i passi 1-4 vengono eseguiti su un campione della tabella e al termine tutte le righe
+	 * vengono assegnate ai centroidi ottenuti.<br>
 	 * Il metodo propaga l'eccezione OutOfRangeSampleSize nel caso in cui il numero
 	 * k di cluster da scoprire risulta essere maggiore delle tuple presenti nella
 	 * tabella {@link data.Data} oppure se tale numero &egrave 0.
@@ -176,35 +603,283 @@ public class KmeansMiner implements Serializable{
 	 * 
 	 * @return Numero di iterazioni eseguite
 	 * @throws OutOfRangeSampleSize
+	 * @throws JobCancelledException Se il job viene annullato (vedi {@link #setCancellationToken(CancellationToken)})
 	 * 
 	 * @see data.OutOfRangeSampleSize
 	 * @see Cluster
 	 * @see ClusterSet
 	 */
 	
-	public int kmeans(Data data) throws OutOfRangeSampleSize{
-		int numberOfIterations = 0;
+	public int kmeans(Data data) throws OutOfRangeSampleSize, JobCancelledException{
+		int numberOfIterations;
+		Random rand = (seed != null) ? new Random(seed) : new Random();
+		Data target = data;
 		
-		C.initializeCentroids(data);
-		boolean changedCluster=false;
-		do{
-			numberOfIterations++;
+		if(sampleFraction < 1){
+			data.checkSampleSize(C.getLen());
+			int size = Math.max(C.getLen(), (int)Math.ceil(sampleFraction * data.getNumberOfExamples()));
+			target = data.sample(Math.min(size, data.getNumberOfExamples()), rand);
+		}
+		sampleSize = target.getNumberOfExamples();
+		
+		if(restarts > 1)
+			numberOfIterations = kmeansRestarts(target, rand);
+		else
+			numberOfIterations = kmeansOnce(target, rand);
+		
+		if(target != data){
+			if(token != null)
+				token.check();
 			
-			changedCluster = false;
-			for(int i=0; i<data.getNumberOfExamples(); i++){
-				Cluster nearestCluster = C.nearestCluster(data.getItemSet(i));
-				Cluster oldCluster = C.currentCluster(i);
-				boolean currentChange=nearestCluster.addData(i);
-				if(currentChange)
-					changedCluster=true;
-				if(currentChange && oldCluster!=null)
-					oldCluster.removeTuple(i);
+			ForkJoinPool pool = (parallelism > 1) ? new ForkJoinPool(parallelism) : null;
+			try{
+				C = C.assignAll(data, pool);
+			} finally {
+				if(pool != null)
+					pool.shutdown();
 			}
-			
-			C.updateCentroids(data);
-
-		}while(changedCluster);
+		}
+		objective = (target != data) ? C.totalDistance(data) : restartObjectives[bestRestart];
 		
 		return numberOfIterations;
 	}
+	
+	/**
+	 * Esegue una sola volta l'algoritmo sulla tabella data (vedi {@link #kmeans(Data)}).
+	 * 
+	 * @param data La tabella su cui eseguire l'algoritmo
+	 * @param rand Il generatore di numeri casuali
+	 * 
+	 * @return Numero di iterazioni eseguite
+	 * @throws OutOfRangeSampleSize
+	 * @throws JobCancelledException Se il job viene annullato
+	 */
+	
+	private int kmeansOnce(Data data, Random rand) throws OutOfRangeSampleSize, JobCancelledException{
+		int numberOfIterations = 0;
+		
+		KmeansEngine engine = newEngine();
+		ForkJoinPool pool = (parallelism > 1) ? new ForkJoinPool(parallelism) : null;
+		
+		engine.setRandom(rand);
+		try{
+			if(engine.usesInitialCentroids())
+				C.initializeCentroids(data, seeding, rand, pool);
+			else
+				C.initializeFirstRows(data);
+			numberOfIterations = engine.run(C, data, pool);
+		} finally {
+			if(pool != null)
+				pool.shutdown();
+		}
+		
+		distanceComputations = engine.getDistanceComputations();
+		prunedDistances = engine.getPrunedDistances();
+		stopCriterion = engine.getStopCriterion();
+		restartObjectives = new double[]{C.totalDistance(data)};
+		restartIterations = new int[]{numberOfIterations};
+		bestRestart = 0;
+		
+		return numberOfIterations;
+	}
+	
+	/**
+	 * Esegue i riavvii dell'algoritmo (vedi {@link #setRestarts(int)}) su un
+	 * {@link java.util.concurrent.ForkJoinPool} con {@link #parallelism} thread; ciascun
+	 * riavvio &egrave eseguito sequenzialmente da un solo thread (vedi {@link RestartTask}).
+	 * Il seme di ciascun riavvio &egrave estratto da rand, per cui con un seme fissato
+	 * anche i riavvii sono ripetibili.
+	 * 
+	 * @param data La tabella su cui eseguire l'algoritmo
+	 * @param rand Il generatore da cui estrarre i semi dei riavvii
+	 * 
+	 * @return Numero di iterazioni del riavvio mantenuto
+	 * @throws OutOfRangeSampleSize
+	 * @throws JobCancelledException Se il job viene annullato
+	 */
+	
+	private int kmeansRestarts(Data data, Random rand) throws OutOfRangeSampleSize, JobCancelledException{
+		int k = C.getLen();
+		List<RestartTask> tasks = new ArrayList<RestartTask>();
+		
+		data.checkSampleSize(k);
+		for(int r = 0; r < restarts; r++)
+			tasks.add(new RestartTask(k, newEngine(), data, seeding, rand.nextLong()));
+		
+		invokeAll(tasks);
+		
+		restartObjectives = new double[restarts];
+		restartIterations = new int[restarts];
+		bestRestart = 0;
+		distanceComputations = 0;
+		prunedDistances = 0;
+		
+		for(int r = 0; r < restarts; r++){
+			RestartTask task = tasks.get(r);
+			restartObjectives[r] = task.getObjective();
+			restartIterations[r] = task.getIterations();
+			distanceComputations += task.getEngine().getDistanceComputations();
+			prunedDistances += task.getEngine().getPrunedDistances();
+			if(restartObjectives[r] < restartObjectives[bestRestart])
+				bestRestart = r;
+		}
+		
+		C = tasks.get(bestRestart).getC();
+		stopCriterion = tasks.get(bestRestart).getEngine().getStopCriterion();
+		
+		return restartIterations[bestRestart];
+	}
+	
+	/**
+	 * Esegue l'algoritmo k-means per ciascun valore di k compreso tra kMin e kMax (inclusi)
+	 * sulla stessa tabella, con le impostazioni correnti (variante, strategia di scelta dei
+	 * centroidi, seme), e ritorna per ciascun k l'obiettivo, il numero di iterazioni e il
+	 * tempo impiegato. Il ClusterSet del miner non viene modificato.<br>
+	 * Senza partenza a caldo le esecuzioni sono indipendenti e vengono eseguite
+	 * contemporaneamente sui thread impostati con {@link #setParallelism(int)}. Con la
+	 * partenza a caldo l'esecuzione per k + 1 parte dai centroidi ottenuti per k, ai quali
+	 * si aggiunge un centroide scelto con la strategia k-means++
+	 * (vedi {@link ClusterSet#initializeCentroids(Data, ClusterSet, Random, ForkJoinPool)}):
+	 * le esecuzioni sono quindi in sequenza e i thread vengono utilizzati all'interno di
+	 * ciascuna di esse. La variante {@link ENGINE_TYPE#BISECTING} non parte dai centroidi
+	 * iniziali, per cui con essa la partenza a caldo non ha effetto sul risultato.
+	 * 
+	 * @param data		La tabella su cui eseguire l'algoritmo
+	 * @param kMin		Il minimo numero di cluster
+	 * @param kMax		Il massimo numero di cluster
+	 * @param warmStart true per la partenza a caldo
+	 * 
+	 * @return Un risultato per ciascun valore di k, in ordine crescente
+	 * @throws OutOfRangeSampleSize Se kMin o kMax non sono validi per la tabella
+	 * @throws IllegalArgumentException Se kMin &egrave maggiore di kMax
+	 * @throws JobCancelledException Se il job viene annullato
+	 */
+	
+	public List<SweepResult> sweep(Data data, int kMin, int kMax, boolean warmStart) throws OutOfRangeSampleSize, JobCancelledException{
+		if(kMin > kMax)
+			throw new IllegalArgumentException("Intervallo di k non valido");
+		data.checkSampleSize(kMin);
+		data.checkSampleSize(kMax);
+		
+		Random rand = (seed != null) ? new Random(seed) : new Random();
+		List<RestartTask> tasks = new ArrayList<RestartTask>();
+		
+		if(!warmStart){
+			for(int k = kMin; k <= kMax; k++)
+				tasks.add(new RestartTask(k, newEngine(), data, seeding, rand.nextLong()));
+			invokeAll(tasks);
+		} else {
+			ForkJoinPool pool = (parallelism > 1) ? new ForkJoinPool(parallelism) : null;
+			ClusterSet previous = null;
+			
+			try{
+				for(int k = kMin; k <= kMax; k++){
+					RestartTask task = new RestartTask(k, newEngine(), data, seeding, rand.nextLong(), previous, pool);
+					task.call();
+					tasks.add(task);
+					previous = task.getC();
+				}
+			} finally {
+				if(pool != null)
+					pool.shutdown();
+			}
+		}
+		
+		List<SweepResult> results = new ArrayList<SweepResult>();
+		distanceComputations = 0;
+		prunedDistances = 0;
+		
+		for(RestartTask task : tasks){
+			results.add(new SweepResult(task.getC().getLen(), task.getObjective(), task.getIterations(), task.getMillis()));
+			distanceComputations += task.getEngine().getDistanceComputations();
+			prunedDistances += task.getEngine().getPrunedDistances();
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Assegna ciascuna tupla della tabella table della base di dati al cluster con centroide
+	 * pi&ugrave vicino tra quelli calcolati da {@link #kmeans(Data)}, con un'unica scansione
+	 * in streaming della tabella (vedi {@link StreamAssignment}). &Egrave il passo finale
+	 * dell'esecuzione su un coreset: data &egrave il coreset su cui &egrave stato eseguito
+	 * l'algoritmo e fornisce gli attributi con cui interpretare le tuple lette.<br>
+	 * La scansione pu&ograve essere annullata con il token impostato con
+	 * {@link #setCancellationToken(CancellationToken)}.
+	 * 
+	 * @param data			 La tabella (o il coreset) su cui &egrave stato eseguito l'algoritmo
+	 * @param table			 Nome della tabella della base di dati
+	 * @param selectedValues Porta, userid e password di accesso alla base di dati
+	 * 
+	 * @return Il numero di tuple assegnate a ciascun cluster e l'obiettivo dell'intera tabella
+	 * @throws JobCancelledException Se il job viene annullato
+	 */
+	
+	public StreamAssignment assignTable(Data data, String table, List<String> selectedValues) throws SQLException, EmptySetException, DatabaseConnectionException, ClassNotFoundException, JobCancelledException{
+		CancellationToken scanToken = (token != null) ? token : new CancellationToken();
+		DBAccess dba = new DBAccess(selectedValues);
+		DBAccess.initConnection();
+		
+		StreamAssignment assignment = new StreamAssignment(C, data);
+		
+		try{
+			new TableData(dba, scanToken).scanGroupedTransazioni(table, assignment);
+		} catch(SQLException e){
+			scanToken.check();
+			throw e;
+		}
+		scanToken.check();
+		
+		return assignment;
+	}
+	
+	/**
+	 * Crea il motore corrispondente alla variante impostata, con i criteri di arresto,
+	 * il token di annullamento e l'osservatore dell'avanzamento impostati.
+	 * 
+	 * @return Un nuovo motore
+	 */
+	
+	private KmeansEngine newEngine(){
+		KmeansEngine engine = KmeansEngine.create(engineType, batchSize, batchIterations);
+		
+		engine.setConvergence(maxIterations, minMovedFraction, shiftTolerance, timeBudget);
+		engine.setCancellationToken(token);
+		engine.setProgressListener(listener);
+		
+		return engine;
+	}
+	
+	/**
+	 * Esegue i task contemporaneamente su un {@link java.util.concurrent.ForkJoinPool} con
+	 * {@link #parallelism} thread e ne attende la terminazione.
+	 * 
+	 * @param tasks I task da eseguire
+	 * 
+	 * @throws OutOfRangeSampleSize Se sollevata da uno dei task
+	 * @throws JobCancelledException Se sollevata da uno dei task
+	 */
+	
+	private void invokeAll(List<RestartTask> tasks) throws OutOfRangeSampleSize, JobCancelledException{
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		
+		try{
+			for(Future<RestartTask> result : pool.invokeAll(tasks))
+				result.get();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch(ExecutionException e){
+			// il pool puo' avvolgere l'eccezione del task in altre eccezioni
+			for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause()){
+				if(cause instanceof OutOfRangeSampleSize)
+					throw (OutOfRangeSampleSize)cause;
+				if(cause instanceof JobCancelledException)
+					throw (JobCancelledException)cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
 }
@@ -0,0 +1,141 @@
+package mining;
+
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.EncodedTuple;
+import data.MiniBatchAccumulator;
+import data.RowCursor;
+import data.Tuple;
+import database.JobCancelledException;
+
+/**
+ * Il motore implementa la variante mini-batch dell'algoritmo k-means, pensata per
+ * esplorazioni rapide su tabelle molto grandi.<br>
+ * Ad ogni iterazione viene estratto (con reinserimento) un campione casuale di righe: le
+ * righe vengono prima tutte associate al centroide pi&ugrave vicino e poi utilizzate per
+ * spostare tali centroidi con un tasso di apprendimento proprio di ciascun centroide
+ * (vedi {@link MiniBatchAccumulator}). Il numero di iterazioni &egrave fissato, per cui il
+ * costo non dipende dalla dimensione della tabella; al termine un passo di assegnamento
+ * completo associa ciascuna riga al centroide pi&ugrave vicino.<br>
+ * Il numero massimo di iterazioni e il tempo massimo di esecuzione interrompono le
+ * iterazioni sui campioni, cos&igrave come uno spostamento dei centroidi inferiore alla
+ * tolleranza impostata; la frazione minima di righe spostate non si applica.<br>
+ * Il numero di iterazioni restituito comprende le sole iterazioni sui campioni, per cui non
+ * supera mai il numero massimo impostato: il passo di assegnamento completo viene notificato
+ * all'osservatore dell'avanzamento con il numero dell'ultima iterazione e tutte le righe
+ * come righe spostate.<br>
+ * Il risultato approssima quello dell'algoritmo standard.
+ *
+ * @author Luca Suriano
+ * @see KmeansEngine
+ */
+
+class MiniBatchEngine extends KmeansEngine {
+
+	/**
+	 * Dimensione predefinita del campione.
+	 */
+	static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * Numero predefinito di iterazioni.
+	 */
+	static final int DEFAULT_BATCH_ITERATIONS = 100;
+
+	/**
+	 * Numero di righe estratte ad ogni iterazione.
+	 */
+	private int batchSize;
+
+	/**
+	 * Numero di iterazioni sui campioni.
+	 */
+	private int batchIterations;
+
+	/**
+	 * Crea il motore.
+	 *
+	 * @param batchSize		  Numero di righe estratte ad ogni iterazione
+	 * @param batchIterations Numero di iterazioni sui campioni
+	 */
+	MiniBatchEngine(int batchSize, int batchIterations) {
+		this.batchSize = batchSize;
+		this.batchIterations = batchIterations;
+	}
+
+	int run(ClusterSet C, Data data, ForkJoinPool pool) throws JobCancelledException {
+		int n = data.getNumberOfExamples();
+		int k = C.getLen();
+		int b = Math.min(batchSize, n);
+		int[] batch = new int[b];
+		int[] nearest = new int[b];
+		boolean[] touched = new boolean[k];
+		double[] shift = new double[k];
+		MiniBatchAccumulator acc = new MiniBatchAccumulator(data, k);
+		RowCursor row = data.cursor();
+		EncodedTuple[] centroids = C.encodeCentroids(data);
+
+		for(int c = 0; c < k; c++)
+			acc.init(c, C.get(c).getCentroid());
+
+		start();
+		stopCriterion = STOP_CRITERION.MAX_ITERATIONS;
+
+		int it;
+		for(it = 0; it < batchIterations && !budgetExceeded(it); it++){
+			checkCancelled();
+			Tuple[] old = shiftTolerance > 0 ? snapshot(C) : null;
+
+			for(int j = 0; j < b; j++){
+				batch[j] = random.nextInt(n);
+				row.moveTo(batch[j]);
+				nearest[j] = C.nearestClusterIndex(row, centroids);
+			}
+			distanceComputations += (long)b * k;
+
+			for(int j = 0; j < b; j++){
+				acc.update(data, batch[j], nearest[j]);
+				touched[nearest[j]] = true;
+			}
+
+			for(int c = 0; c < k; c++)
+				if(touched[c]){
+					acc.updatePrototype(c, C.get(c).getCentroid());
+					centroids[c] = data.encode(C.get(c).getCentroid());
+					touched[c] = false;
+				}
+
+			if(isReporting()){
+				// obiettivo (pesato) stimato sul campione, estratto in modo uniforme tra le righe
+				double objective = 0;
+				for(int j = 0; j < b; j++){
+					row.moveTo(batch[j]);
+					objective += data.getWeight(batch[j]) * row.distance(centroids[nearest[j]]);
+				}
+				report(C, it + 1, b, objective * n / b);
+			}
+
+			if(old != null && shifts(old, C, shift) <= shiftTolerance){
+				stopCriterion = STOP_CRITERION.MAX_SHIFT;
+				it++;
+				break;
+			}
+		}
+
+		// passo di assegnamento completo
+		if(pool != null)
+			C.updateAssignment(data, pool);
+		else {
+			int[] assignment = new int[n];
+			C.nearestClusters(data, centroids, 0, n, assignment, null);
+			for(int i = 0; i < n; i++)
+				C.get(assignment[i]).addData(i);
+		}
+		distanceComputations += (long)n * k;
+		// il passo completo viene notificato senza contarlo tra le iterazioni
+		report(C, data, it, n);
+
+		return it;
+	}
+}
@@ -0,0 +1,33 @@
+package mining;
+
+/**
+ * L'interfaccia modella un osservatore dell'avanzamento dell'algoritmo k-means.<br>
+ * Viene utilizzata da {@link KmeansMiner#setProgressListener(ProgressListener)}: al termine
+ * di ciascuna iterazione (assegnamento e aggiornamento dei centroidi) il motore in
+ * esecuzione richiama {@link #iterationCompleted(int, int, double, long, ClusterSet)} nel
+ * thread che esegue l'algoritmo. In presenza di pi&ugrave esecuzioni contemporanee (riavvii o
+ * ricerca di k) le notifiche vengono serializzate e il numero di iterazione si riferisce
+ * alla singola esecuzione.
+ *
+ * @author Luca Suriano
+ * @see KmeansMiner
+ * @see KmeansEngine
+ */
+
+public interface ProgressListener {
+
+	/**
+	 * Il metodo viene richiamato al termine di ciascuna iterazione.
+	 *
+	 * @param iteration Numero dell'iterazione (a partire da 1; per la variante bisecting,
+	 * 					numero di cluster ottenuti dopo la divisione)
+	 * @param moved		Numero di righe che hanno cambiato cluster nell'iterazione (per la
+	 * 					variante mini-batch, numero di righe del campione; per la variante
+	 * 					bisecting, numero di righe passate al nuovo cluster)
+	 * @param objective Somma delle distanze delle righe dai centroidi dei propri cluster (per
+	 * 					la variante mini-batch, stima ottenuta dal campione)
+	 * @param millis	Tempo trascorso dall'inizio dell'esecuzione in millisecondi
+	 * @param C			Il ClusterSet con i centroidi provvisori (da non modificare)
+	 */
+	void iterationCompleted(int iteration, int moved, double objective, long millis, ClusterSet C);
+}
@@ -0,0 +1,173 @@
+package mining;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.OutOfRangeSampleSize;
+import database.JobCancelledException;
+
+/**
+ * La classe modella una singola esecuzione (riavvio) dell'algoritmo k-means nella
+ * modalit&agrave a riavvii multipli di {@link KmeansMiner} e nella ricerca del numero di
+ * cluster ({@link KmeansMiner#sweep(Data, int, int, boolean)}).<br>
+ * Ciascun riavvio possiede un proprio {@link ClusterSet}, un proprio motore e un proprio
+ * generatore di numeri casuali, mentre la tabella {@link Data} &egrave condivisa tra tutti i
+ * riavvii ed utilizzata in sola lettura: i riavvii possono quindi essere eseguiti
+ * contemporaneamente da thread diversi senza alcuna sincronizzazione.<br>
+ * Al termine il task calcola l'obiettivo della soluzione ottenuta, ovvero la somma delle
+ * distanze di ciascuna riga dal centroide del proprio cluster
+ * ({@link ClusterSet#totalDistance(Data)}) e il tempo impiegato.
+ * 
+ * @author Luca Suriano
+ * @see KmeansMiner#setRestarts(int)
+ */
+
+class RestartTask implements Callable<RestartTask> {
+
+	/**
+	 * L'insieme di cluster prodotto dal riavvio.
+	 */
+	private ClusterSet C;
+	
+	/**
+	 * Il motore che esegue l'algoritmo.
+	 */
+	private KmeansEngine engine;
+	
+	/**
+	 * La tabella condivisa (in sola lettura).
+	 */
+	private Data data;
+	
+	/**
+	 * La strategia di scelta dei centroidi iniziali.
+	 */
+	private SEEDING_TYPE seeding;
+	
+	/**
+	 * Il generatore di numeri casuali del riavvio.
+	 */
+	private Random rand;
+	
+	/**
+	 * Soluzione da cui partire a caldo (oppure null).
+	 */
+	private ClusterSet warmStart;
+	
+	/**
+	 * Il pool di thread da utilizzare all'interno del riavvio oppure null.
+	 */
+	private ForkJoinPool pool;
+	
+	/**
+	 * Numero di iterazioni eseguite.
+	 */
+	private int iterations;
+	
+	/**
+	 * Somma delle distanze delle righe dai centroidi dei propri cluster.
+	 */
+	private double objective;
+	
+	/**
+	 * Tempo impiegato in millisecondi.
+	 */
+	private long millis;
+	
+	/**
+	 * Il costruttore inizializza il riavvio.
+	 * 
+	 * @param k		  Numero di cluster
+	 * @param engine  Il motore da utilizzare
+	 * @param data	  La tabella condivisa
+	 * @param seeding La strategia di scelta dei centroidi iniziali
+	 * @param seed	  Il seme del generatore di numeri casuali del riavvio
+	 */
+	RestartTask(int k, KmeansEngine engine, Data data, SEEDING_TYPE seeding, long seed){
+		this(k, engine, data, seeding, seed, null, null);
+	}
+	
+	/**
+	 * Il costruttore inizializza il riavvio, eventualmente a partire da una soluzione
+	 * precedente (vedi {@link ClusterSet#initializeCentroids(Data, ClusterSet, Random, ForkJoinPool)}).
+	 * 
+	 * @param k			Numero di cluster
+	 * @param engine	Il motore da utilizzare
+	 * @param data		La tabella condivisa
+	 * @param seeding	La strategia di scelta dei centroidi iniziali (se warmStart &egrave null)
+	 * @param seed		Il seme del generatore di numeri casuali del riavvio
+	 * @param warmStart La soluzione da cui partire oppure null
+	 * @param pool		Il pool di thread da utilizzare all'interno del riavvio oppure null
+	 */
+	RestartTask(int k, KmeansEngine engine, Data data, SEEDING_TYPE seeding, long seed, ClusterSet warmStart, ForkJoinPool pool){
+		this.C = new ClusterSet(k);
+		this.engine = engine;
+		this.data = data;
+		this.seeding = seeding;
+		this.rand = new Random(seed);
+		this.warmStart = warmStart;
+		this.pool = pool;
+	}
+	
+	/**
+	 * Esegue il riavvio nel thread chiamante (sequenzialmente se non &egrave stato
+	 * specificato un pool) e ne calcola l'obiettivo.
+	 * 
+	 * @return Il task stesso, con i risultati
+	 * @throws OutOfRangeSampleSize
+	 * @throws JobCancelledException Se il job viene annullato
+	 */
+	public RestartTask call() throws OutOfRangeSampleSize, JobCancelledException {
+		long start = System.currentTimeMillis();
+		
+		engine.setRandom(rand);
+		if(!engine.usesInitialCentroids())
+			C.initializeFirstRows(data);
+		else if(warmStart != null)
+			C.initializeCentroids(data, warmStart, rand, pool);
+		else
+			C.initializeCentroids(data, seeding, rand, pool);
+		iterations = engine.run(C, data, pool);
+		objective = C.totalDistance(data);
+		millis = System.currentTimeMillis() - start;
+		
+		return this;
+	}
+	
+	/**
+	 * Ritorna l'insieme di cluster prodotto dal riavvio.
+	 */
+	ClusterSet getC(){
+		return C;
+	}
+	
+	/**
+	 * Ritorna il motore utilizzato dal riavvio.
+	 */
+	KmeansEngine getEngine(){
+		return engine;
+	}
+	
+	/**
+	 * Ritorna il numero di iterazioni eseguite.
+	 */
+	int getIterations(){
+		return iterations;
+	}
+	
+	/**
+	 * Ritorna la somma delle distanze delle righe dai centroidi dei propri cluster.
+	 */
+	double getObjective(){
+		return objective;
+	}
+	
+	/**
+	 * Ritorna il tempo impiegato in millisecondi.
+	 */
+	long getMillis(){
+		return millis;
+	}
+}
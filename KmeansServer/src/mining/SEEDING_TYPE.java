@@ -0,0 +1,21 @@
+package mining;
+
+/**
+ * Classe enumerativa che elenca le strategie di scelta dei centroidi iniziali
+ * utilizzabili da {@link ClusterSet#initializeCentroids(data.Data, SEEDING_TYPE, java.util.Random, java.util.concurrent.ForkJoinPool)}.<br>
+ * RANDOM: k righe distinte scelte a caso ({@link data.Data#sampling(int, java.util.Random)}).<br>
+ * KMEANSPP: k-means++; ciascun centroide successivo al primo viene scelto con probabilit&agrave
+ * proporzionale al quadrato della distanza della riga dal centroide pi&ugrave vicino tra
+ * quelli gi&agrave scelti. I centroidi risultano ben distribuiti e l'algoritmo converge in
+ * un numero minore di iterazioni.<br>
+ * KMEANSPARALLEL: k-means||; poche passate di sovracampionamento (indipendenti da k)
+ * producono un insieme pesato di candidati, tra i quali i k centroidi vengono scelti in
+ * memoria con la strategia k-means++.
+ * 
+ * @author Luca Suriano
+ * @see KmeansMiner#setSeeding(SEEDING_TYPE)
+ */
+
+public enum SEEDING_TYPE {
+	RANDOM, KMEANSPP, KMEANSPARALLEL
+}
@@ -0,0 +1,18 @@
+package mining;
+
+/**
+ * Classe enumerativa che elenca i criteri che possono terminare l'esecuzione
+ * dell'algoritmo k-means (vedi {@link KmeansMiner#getStopCriterion()}).<br>
+ * CONVERGED: nessuna riga ha cambiato cluster nell'ultima iterazione.<br>
+ * MAX_ITERATIONS: &egrave stato raggiunto il numero massimo di iterazioni.<br>
+ * MIN_MOVED: la frazione di righe che hanno cambiato cluster &egrave scesa sotto la soglia.<br>
+ * MAX_SHIFT: nessun centroide si &egrave spostato pi&ugrave della tolleranza.<br>
+ * TIME_BUDGET: &egrave stato superato il tempo massimo a disposizione.
+ * 
+ * @author Luca Suriano
+ * @see KmeansEngine
+ */
+
+public enum STOP_CRITERION {
+	CONVERGED, MAX_ITERATIONS, MIN_MOVED, MAX_SHIFT, TIME_BUDGET
+}
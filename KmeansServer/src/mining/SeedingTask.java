@@ -0,0 +1,128 @@
+package mining;
+
+import java.util.concurrent.RecursiveTask;
+
+import data.Data;
+import data.EncodedTuple;
+import data.RowCursor;
+
+/**
+ * La classe modella il passo di aggiornamento delle distanze delle scelte k-means++ e
+ * k-means|| dei centroidi iniziali, eseguito in parallelo su un
+ * {@link java.util.concurrent.ForkJoinPool}.<br>
+ * Per ciascuna riga dell'intervallo assegnato il task calcola la distanza dagli ultimi
+ * centroidi scelti e, se minore, la sostituisce alla distanza dal centroide pi&ugrave vicino
+ * memorizzata nel vettore minDist, registrando eventualmente nel vettore owner l'indice di
+ * tale centroide (i thread scrivono in posizioni disgiunte). Il task ritorna
+ * la somma dei quadrati delle distanze aggiornate, moltiplicati per i pesi delle righe
+ * ({@link Data#getWeight(int)}), necessaria all'estrazione del centroide
+ * successivo; le somme dei sotto-task vengono sommate al momento del join.<br>
+ * L'intervallo viene suddiviso ricorsivamente come in {@link AssignmentTask}.
+ * 
+ * @author Luca Suriano
+ * @see ClusterSet#initializeCentroids(Data, SEEDING_TYPE, java.util.Random, java.util.concurrent.ForkJoinPool)
+ */
+
+class SeedingTask extends RecursiveTask<Double> {
+
+	/**
+	 * Gli ultimi centroidi scelti, codificati ({@link Data#encode(data.Tuple)}).
+	 */
+	private EncodedTuple[] centroids;
+	
+	/**
+	 * Distanza di ciascuna riga dal centroide pi&ugrave vicino tra quelli scelti.
+	 */
+	private double[] minDist;
+	
+	/**
+	 * Indice del centroide pi&ugrave vicino a ciascuna riga (null se non richiesto).
+	 */
+	private int[] owner;
+	
+	/**
+	 * Indice del primo dei centroidi {@link #centroids} tra tutti quelli scelti.
+	 */
+	private int offset;
+	
+	/**
+	 * La tabella contenente le righe.
+	 */
+	private Data data;
+	
+	/**
+	 * Prima riga (inclusa) dell'intervallo assegnato al task.
+	 */
+	private int from;
+	
+	/**
+	 * Ultima riga (esclusa) dell'intervallo assegnato al task.
+	 */
+	private int to;
+	
+	/**
+	 * Numero massimo di righe elaborate da un task senza ulteriori suddivisioni.
+	 */
+	private int threshold;
+	
+	/**
+	 * Il costruttore inizializza il task per l'intervallo di righe [from, to).
+	 * 
+	 * @param centroids	Gli ultimi centroidi scelti (codificati)
+	 * @param minDist	Le distanze dal centroide pi&ugrave vicino da aggiornare
+	 * @param owner		Gli indici del centroide pi&ugrave vicino da aggiornare (oppure null)
+	 * @param offset	Indice del primo dei centroidi tra tutti quelli scelti
+	 * @param data		La tabella contenente le righe
+	 * @param from		Prima riga (inclusa)
+	 * @param to		Ultima riga (esclusa)
+	 * @param threshold	Dimensione massima di un blocco elaborato sequenzialmente
+	 */
+	SeedingTask(EncodedTuple[] centroids, double[] minDist, int[] owner, int offset, Data data, int from, int to, int threshold){
+		this.centroids = centroids;
+		this.minDist = minDist;
+		this.owner = owner;
+		this.offset = offset;
+		this.data = data;
+		this.from = from;
+		this.to = to;
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * Aggiorna le distanze delle righe dell'intervallo, suddividendo l'intervallo se
+	 * pi&ugrave grande della soglia.
+	 * 
+	 * @return Somma pesata dei quadrati delle distanze aggiornate
+	 */
+	protected Double compute() {
+		if(to - from <= threshold){
+			double sum = 0;
+			RowCursor row = data.cursor();
+			
+			for(int i = from; i < to; i++){
+				row.moveTo(i);
+				
+				for(int j = 0; j < centroids.length; j++){
+					double d = row.distance(centroids[j]);
+					if(d < minDist[i]){
+						minDist[i] = d;
+						if(owner != null)
+							owner[i] = offset + j;
+					}
+				}
+				sum += data.getWeight(i) * minDist[i] * minDist[i];
+			}
+			
+			return sum;
+		}
+		
+		int mid = (from + to) >>> 1;
+		SeedingTask left = new SeedingTask(centroids, minDist, owner, offset, data, from, mid, threshold);
+		SeedingTask right = new SeedingTask(centroids, minDist, owner, offset, data, mid, to, threshold);
+		
+		left.fork();
+		double sum = right.compute();
+		
+		return sum + left.join();
+	}
+}
@@ -0,0 +1,62 @@
+package mining;
+
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.Tuple;
+import database.JobCancelledException;
+
+/**
+ * Il motore implementa l'algoritmo k-means standard: ad ogni iterazione ciascuna riga
+ * viene assegnata al cluster con centroide pi&ugrave vicino (calcolando la distanza da tutti
+ * i centroidi per tessere di righe e di centroidi, vedi
+ * {@link ClusterSet#nearestClusters(Data, data.EncodedTuple[], int, int, int[], double[])}) e i
+ * centroidi vengono ricalcolati.<br>
+ * Se &egrave disponibile un pool di thread il passo di assegnamento viene eseguito in parallelo
+ * (vedi {@link ClusterSet#updateAssignment(Data, ForkJoinPool)}).
+ * 
+ * @author Luca Suriano
+ * @see KmeansEngine
+ */
+
+class StandardEngine extends KmeansEngine {
+
+	int run(ClusterSet C, Data data, ForkJoinPool pool) throws JobCancelledException {
+		int numberOfIterations = 0;
+		int n = data.getNumberOfExamples();
+		double[] shift = new double[C.getLen()];
+		int[] nearest = (pool == null) ? new int[n] : null;
+		int moved;
+		double maxShift;
+		
+		start();
+		do{
+			checkCancelled();
+			numberOfIterations++;
+			
+			if(pool != null)
+				moved = C.updateAssignment(data, pool);
+			else{
+				moved = 0;
+				C.nearestClusters(data, C.encodeCentroids(data), 0, n, nearest, null);
+				for(int i=0; i<n; i++){
+					Cluster nearestCluster = C.get(nearest[i]);
+					// addData sposta la riga dal cluster corrente (se presente) a nearestCluster
+					boolean currentChange=nearestCluster.addData(i);
+					if(currentChange)
+						moved++;
+				}
+			}
+			distanceComputations += (long)n * C.getLen();
+			
+			// lo spostamento dei centroidi viene misurato solo se richiesto
+			Tuple[] old = (shiftTolerance > 0) ? snapshot(C) : null;
+			C.updateCentroids(data, pool);
+			report(C, data, numberOfIterations, moved);
+			maxShift = (old != null) ? shifts(old, C, shift) : Double.MAX_VALUE;
+
+		}while(!stop(numberOfIterations, moved, n, maxShift));
+		
+		return numberOfIterations;
+	}
+}
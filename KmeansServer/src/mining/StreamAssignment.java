@@ -0,0 +1,201 @@
+package mining;
+
+import data.Attribute;
+import data.ContinuousAttribute;
+import data.ContinuousItem;
+import data.Data;
+import data.DiscreteAttribute;
+import data.Item;
+import database.Example;
+import database.ExampleHandler;
+
+/**
+ * La classe modella il passo di assegnamento eseguito in streaming su una tabella della
+ * base di dati che non &egrave memorizzata in {@link Data} (ad esempio quando l'algoritmo
+ * &egrave stato eseguito su un coreset, vedi {@link Data#Data(String, java.util.List, int, java.util.Random, database.CancellationToken)}):
+ * ciascuna transazione letta viene assegnata al cluster con centroide pi&ugrave vicino e
+ * subito scartata, mantenendo soltanto il numero di occorrenze assegnate a ciascun cluster
+ * e l'obiettivo (somma delle distanze dai centroidi) dell'intera tabella.<br>
+ * I centroidi vengono codificati una sola volta (valori normalizzati degli attributi continui
+ * e codici dei valori discreti) e ciascuna transazione viene confrontata con essi leggendone
+ * direttamente i valori, senza creare una {@link data.Tuple}: le distanze coincidono con
+ * quelle di {@link data.Tuple#getDistance(data.Tuple)}.<br>
+ * La memoria occupata non dipende quindi dalla dimensione della tabella.
+ *
+ * @author Luca Suriano
+ * @see KmeansMiner#assignTable(Data, String, java.util.List)
+ */
+
+public class StreamAssignment implements ExampleHandler {
+
+	/**
+	 * Gli attributi con cui interpretare le transazioni.
+	 */
+	private Attribute[] attributes;
+
+	/**
+	 * Indica, per ciascun attributo, se &egrave continuo.
+	 */
+	private boolean[] continuous;
+
+	/**
+	 * Valori normalizzati degli attributi continui di ciascun centroide (0 in corrispondenza
+	 * degli attributi discreti).
+	 */
+	private double[][] values;
+
+	/**
+	 * Codici ({@link DiscreteAttribute#getCode(String)}) dei valori degli attributi discreti
+	 * di ciascun centroide (0 in corrispondenza degli attributi continui).
+	 */
+	private int[][] codes;
+
+	/**
+	 * Valori normalizzati e codici della transazione corrente, riutilizzati per ogni transazione.
+	 */
+	private double[] rowValues;
+	private int[] rowCodes;
+
+	/**
+	 * Numero di occorrenze assegnate a ciascun cluster.
+	 */
+	private long[] counts;
+
+	/**
+	 * Somma delle distanze delle occorrenze dal centroide del proprio cluster.
+	 */
+	private double objective;
+
+	/**
+	 * Numero di transazioni (distinte) lette.
+	 */
+	private long rows;
+
+	/**
+	 * Crea il passo di assegnamento sui centroidi dei cluster di C.
+	 *
+	 * @param C	   I cluster
+	 * @param data La tabella con gli attributi della tabella da assegnare
+	 */
+	StreamAssignment(ClusterSet C, Data data){
+		int k = C.getLen();
+		int attrLen = data.getNumberOfExplanatorySet();
+
+		this.attributes = new Attribute[attrLen];
+		this.continuous = new boolean[attrLen];
+		this.values = new double[k][attrLen];
+		this.codes = new int[k][attrLen];
+		this.rowValues = new double[attrLen];
+		this.rowCodes = new int[attrLen];
+		this.counts = new long[k];
+
+		for(int a = 0; a < attrLen; a++){
+			attributes[a] = data.getAttributeSchema(a);
+			continuous[a] = attributes[a] instanceof ContinuousAttribute;
+		}
+
+		for(int c = 0; c < k; c++)
+			for(int a = 0; a < attrLen; a++){
+				Item item = C.get(c).getCentroid().get(a);
+
+				if(continuous[a])
+					values[c][a] = ((ContinuousItem)item).getScaledValue();
+				else
+					codes[c][a] = ((DiscreteAttribute)attributes[a]).getCode((String)item.getValue());
+			}
+	}
+
+	/**
+	 * Assegna la transazione ex (con le sue {@link Example#getCount()} occorrenze) al
+	 * cluster con centroide pi&ugrave vicino.
+	 */
+	public void handle(Example ex){
+		for(int a = 0; a < attributes.length; a++)
+			if(continuous[a])
+				rowValues[a] = ((ContinuousAttribute)attributes[a]).getScaledValue((Double)ex.get(a));
+			else
+				rowCodes[a] = ((DiscreteAttribute)attributes[a]).getCode((String)ex.get(a));
+
+		int nearest = 0;
+		double minDist = distance(0);
+
+		for(int c = 1; c < counts.length; c++){
+			double d = distance(c);
+			if(d < minDist){
+				minDist = d;
+				nearest = c;
+			}
+		}
+
+		counts[nearest] += ex.getCount();
+		objective += ex.getCount() * minDist;
+		rows++;
+	}
+
+	/**
+	 * Calcola la distanza tra la transazione corrente e il centroide del cluster c: gli
+	 * attributi discreti contribuiscono 0 o 1 (1 anche per i valori esterni al dominio, con
+	 * codice negativo), quelli continui la differenza (in valore assoluto) dei valori
+	 * normalizzati.
+	 */
+	private double distance(int c){
+		double dist = 0;
+
+		for(int a = 0; a < attributes.length; a++)
+			if(!continuous[a] && (rowCodes[a] < 0 || rowCodes[a] != codes[c][a]))
+				dist += 1;
+		for(int a = 0; a < attributes.length; a++)
+			if(continuous[a])
+				dist += Math.abs(rowValues[a] - values[c][a]);
+
+		return dist;
+	}
+
+	/**
+	 * Ritorna il numero di occorrenze assegnate al cluster c.
+	 *
+	 * @param c Indice del cluster
+	 */
+	public long getCount(int c){
+		return counts[c];
+	}
+
+	/**
+	 * Ritorna l'obiettivo dell'intera tabella: la somma delle distanze di ciascuna
+	 * occorrenza dal centroide del proprio cluster.
+	 */
+	public double getObjective(){
+		return objective;
+	}
+
+	/**
+	 * Ritorna il numero di transazioni (distinte) lette.
+	 */
+	public long getRows(){
+		return rows;
+	}
+
+	/**
+	 * Ritorna il numero di occorrenze lette.
+	 */
+	public long getOccurrences(){
+		long total = 0;
+
+		for(long count : counts)
+			total += count;
+
+		return total;
+	}
+
+	/**
+	 * Ritorna il risultato come testo: obiettivo e occorrenze di ciascun cluster.
+	 */
+	public String toString(){
+		String str = "Assegnamento della tabella: " + getOccurrences() + " tuple - Obiettivo " + objective + "\n";
+
+		for(int c = 0; c < counts.length; c++)
+			str += "Cluster " + c + ": " + counts[c] + " tuple\n";
+
+		return str;
+	}
+}
@@ -0,0 +1,76 @@
+package mining;
+
+import java.io.Serializable;
+
+/**
+ * La classe rappresenta il risultato dell'algoritmo k-means per un singolo valore di k
+ * nella ricerca del numero di cluster ({@link KmeansMiner#sweep(data.Data, int, int, boolean)}):
+ * l'obiettivo (somma delle distanze delle righe dai centroidi dei propri cluster), il numero
+ * di iterazioni e il tempo impiegato. L'andamento dell'obiettivo al crescere di k
+ * (curva "a gomito") aiuta a scegliere il numero di cluster.
+ * 
+ * @author Luca Suriano
+ * @see KmeansMiner
+ */
+
+public class SweepResult implements Serializable {
+
+	/**
+	 * Numero di cluster.
+	 */
+	private int k;
+	
+	/**
+	 * Somma delle distanze delle righe dai centroidi dei propri cluster.
+	 */
+	private double objective;
+	
+	/**
+	 * Numero di iterazioni eseguite.
+	 */
+	private int iterations;
+	
+	/**
+	 * Tempo impiegato in millisecondi.
+	 */
+	private long millis;
+	
+	/**
+	 * Crea il risultato.
+	 * 
+	 * @param k			 Numero di cluster
+	 * @param objective	 Somma delle distanze delle righe dai centroidi dei propri cluster
+	 * @param iterations Numero di iterazioni eseguite
+	 * @param millis	 Tempo impiegato in millisecondi
+	 */
+	SweepResult(int k, double objective, int iterations, long millis){
+		this.k = k;
+		this.objective = objective;
+		this.iterations = iterations;
+		this.millis = millis;
+	}
+	
+	public int getK(){
+		return k;
+	}
+	
+	public double getObjective(){
+		return objective;
+	}
+	
+	public int getIterations(){
+		return iterations;
+	}
+	
+	public long getMillis(){
+		return millis;
+	}
+	
+	/**
+	 * Ritorna il risultato come riga di tabella: k, obiettivo, iterazioni e tempo (ms)
+	 * separati da tabulazioni.
+	 */
+	public String toString(){
+		return k + "\t" + String.format("%.4f", objective) + "\t" + iterations + "\t" + millis;
+	}
+}
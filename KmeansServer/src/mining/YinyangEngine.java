@@ -0,0 +1,246 @@
+package mining;
+
+import java.util.concurrent.ForkJoinPool;
+
+import data.Data;
+import data.EncodedTuple;
+import data.RowCursor;
+import data.Tuple;
+import database.JobCancelledException;
+
+/**
+ * Il motore implementa la variante Yinyang dell'algoritmo k-means, adatta a valori
+ * di k elevati.<br>
+ * All'avvio i centroidi vengono suddivisi in t = max(1, k / {@link #GROUP_SIZE}) gruppi,
+ * assegnando ciascun centroide al pi&ugrave vicino tra t centroidi (scelti casualmente
+ * dalla selezione iniziale). Per ciascuna riga x il motore mantiene:<br>
+ * - un limite superiore u(x) alla distanza dal centroide del proprio cluster;<br>
+ * - per ciascun gruppo G un limite inferiore l(x, G) alla distanza dai centroidi di G
+ * diversi da quello della riga.<br>
+ * Dopo l'aggiornamento dei centroidi u(x) cresce dello spostamento del proprio centroide e
+ * l(x, G) diminuisce dello spostamento massimo dei centroidi di G. Una riga per cui u(x)
+ * &egrave minore di tutti i limiti inferiori non cambia cluster (filtro globale); altrimenti
+ * vengono esaminati soltanto i gruppi con l(x, G) non maggiore di u(x) e, al loro interno,
+ * soltanto i centroidi c per cui il limite l(x, G) - spostamento(c) non esclude c (filtro
+ * locale). Le distanze dai centroidi degli altri gruppi non vengono calcolate.<br>
+ * I confronti sono stretti e a parit&agrave di distanza prevale il centroide con indice
+ * minore, come in {@link ClusterSet#nearestClusterIndex(Tuple)}: il motore produce gli
+ * stessi assegnamenti dell'algoritmo standard.<br>
+ * La memoria aggiuntiva richiesta &egrave di n &middot; (t + 1) valori double.
+ *
+ * @author Luca Suriano
+ * @see KmeansEngine
+ */
+
+class YinyangEngine extends KmeansEngine {
+
+	/**
+	 * Numero medio di centroidi per gruppo.
+	 */
+	static final int GROUP_SIZE = 10;
+
+	int run(ClusterSet C, Data data, ForkJoinPool pool) throws JobCancelledException {
+		int n = data.getNumberOfExamples();
+		int k = C.getLen();
+		int[][] groups = group(C);
+		int t = groups.length;
+		int[] groupOf = new int[k];
+		double[] upper = new double[n];
+		double[][] lower = new double[n][t];
+		double[] shift = new double[k];
+		double[] groupShift = new double[t];
+		double[] oldLower = new double[t];
+		boolean[] scanned = new boolean[t];
+		double[] dist = new double[k];
+		RowCursor row = data.cursor();
+		EncodedTuple[] centroids = C.encodeCentroids(data);
+		int numberOfIterations = 0;
+		int moved;
+
+		for(int g = 0; g < t; g++)
+			for(int c : groups[g])
+				groupOf[c] = g;
+
+		start();
+
+		// prima iterazione: tutte le distanze vengono calcolate, per blocchi di righe
+		double[][] block = new double[Math.min(ClusterSet.BLOCK_SIZE, n)][k];
+		for(int start = 0; start < n; start += block.length){
+			int end = Math.min(start + block.length, n);
+
+			C.distances(data, centroids, start, end, block);
+			for(int x = start; x < end; x++){
+				double[] d = block[x - start];
+				int a = 0;
+
+				for(int c = 1; c < k; c++)
+					if(d[c] < d[a])
+						a = c;
+				upper[x] = d[a];
+				for(int g = 0; g < t; g++)
+					lower[x][g] = groupMin(groups[g], d, a);
+				C.assign(x, a);
+			}
+		}
+		block = null;
+		distanceComputations += (long)n * k;
+		moved = n;
+
+		while(true){
+			checkCancelled();
+			numberOfIterations++;
+
+			Tuple[] old = snapshot(C);
+			C.updateCentroids(data, pool);
+			report(C, data, numberOfIterations, moved);
+
+			if(stop(numberOfIterations, moved, n, shifts(old, C, shift)))
+				break;
+			centroids = C.encodeCentroids(data);
+
+			for(int g = 0; g < t; g++)
+				groupShift[g] = 0;
+			for(int c = 0; c < k; c++)
+				groupShift[groupOf[c]] = Math.max(groupShift[groupOf[c]], shift[c]);
+
+			moved = 0;
+			long computed = 0;
+
+			for(int x = 0; x < n; x++){
+				int a = C.getClusterIndex(x);
+				double[] l = lower[x];
+				double globalLower = Double.MAX_VALUE;
+
+				upper[x] += shift[a];
+				for(int g = 0; g < t; g++){
+					oldLower[g] = l[g];
+					l[g] -= groupShift[g];
+					globalLower = Math.min(globalLower, l[g]);
+				}
+
+				// filtro globale
+				if(upper[x] < globalLower)
+					continue;
+
+				row.moveTo(x);
+				upper[x] = row.distance(centroids[a]);
+				computed++;
+				if(upper[x] < globalLower)
+					continue;
+
+				int previous = a;
+				double previousDist = upper[x];
+
+				for(int g = 0; g < t; g++){
+					// filtro di gruppo
+					scanned[g] = !(upper[x] < l[g]);
+					if(!scanned[g])
+						continue;
+
+					for(int c : groups[g]){
+						if(c == previous){
+							dist[c] = previousDist;
+							continue;
+						}
+						// filtro locale: limite inferiore alla distanza da c
+						dist[c] = oldLower[g] - shift[c];
+						if(upper[x] < dist[c])
+							continue;
+
+						dist[c] = row.distance(centroids[c]);
+						computed++;
+						if(dist[c] < upper[x] || (dist[c] == upper[x] && c < a)){
+							a = c;
+							upper[x] = dist[c];
+						}
+					}
+				}
+
+				// i limiti dei gruppi esaminati vengono ricalcolati escludendo il nuovo
+				// centroide; negli altri gruppi entra in gioco solo il centroide precedente
+				for(int g = 0; g < t; g++)
+					if(scanned[g])
+						l[g] = groupMin(groups[g], dist, a);
+				if(a != previous && !scanned[groupOf[previous]])
+					l[groupOf[previous]] = Math.min(l[groupOf[previous]], previousDist);
+
+				if(C.assign(x, a))
+					moved++;
+			}
+
+			distanceComputations += computed;
+			prunedDistances += (long)n * k - computed;
+		}
+
+		return numberOfIterations;
+	}
+
+	/**
+	 * Suddivide i centroidi in gruppi: i primi t centroidi (scelti casualmente) fanno da
+	 * riferimento e ciascun centroide entra nel gruppo del riferimento pi&ugrave vicino.
+	 *
+	 * @param C Il ClusterSet con i centroidi iniziali
+	 *
+	 * @return Per ciascun gruppo gli indici (crescenti) dei suoi centroidi
+	 */
+	private static int[][] group(ClusterSet C){
+		int k = C.getLen();
+		int t = Math.max(1, k / GROUP_SIZE);
+		int[] groupOf = new int[k];
+		int[] sizes = new int[t];
+
+		for(int c = 0; c < k; c++){
+			Tuple centroid = C.get(c).getCentroid();
+			double best = Double.MAX_VALUE;
+			for(int g = 0; g < t; g++){
+				double d = centroid.getDistance(C.get(g).getCentroid());
+				if(d < best){
+					best = d;
+					groupOf[c] = g;
+				}
+			}
+			sizes[groupOf[c]]++;
+		}
+
+		int nonEmpty = 0;
+		for(int g = 0; g < t; g++)
+			if(sizes[g] > 0)
+				nonEmpty++;
+
+		int[][] groups = new int[nonEmpty][];
+		int[] index = new int[t];
+		for(int g = 0, j = 0; g < t; g++)
+			if(sizes[g] > 0){
+				index[g] = j;
+				groups[j++] = new int[sizes[g]];
+			}
+
+		int[] fill = new int[nonEmpty];
+		for(int c = 0; c < k; c++){
+			int j = index[groupOf[c]];
+			groups[j][fill[j]++] = c;
+		}
+
+		return groups;
+	}
+
+	/**
+	 * Ritorna il minimo dei valori dist relativi ai centroidi del gruppo, escluso il
+	 * centroide exclude.
+	 *
+	 * @param group	  Indici dei centroidi del gruppo
+	 * @param dist	  Distanze (o limiti inferiori) dai centroidi
+	 * @param exclude Centroide da escludere
+	 *
+	 * @return Il minimo, oppure Double.MAX_VALUE se il gruppo non contiene altri centroidi
+	 */
+	private static double groupMin(int[] group, double[] dist, int exclude){
+		double min = Double.MAX_VALUE;
+
+		for(int c : group)
+			if(c != exclude && dist[c] < min)
+				min = dist[c];
+
+		return min;
+	}
+}
@@ -7,12 +7,26 @@ import java.io.ObjectOutputStream;
 import java.net.Socket;
 import java.sql.SQLException;
 import java.util.ArrayList;
-
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mining.ClusterSet;
+import mining.ENGINE_TYPE;
+import mining.SEEDING_TYPE;
 import mining.KmeansMiner;
+import mining.ProgressListener;
+import mining.SweepResult;
 import data.Data;
 import data.OutOfRangeSampleSize;
+import database.CancellationToken;
 import database.DatabaseConnectionException;
 import database.EmptySetException;
+import database.JobCancelledException;
 import database.NoValueException;
 
 import org.jfree.data.general.DatasetUtilities;
@@ -49,6 +63,48 @@ class ServerOneClient extends Thread{
 	private ServerApp frame;
 	private String operaz;
 	private boolean flagOp = false; 
+	
+	/**
+	 * Nome della tabella caricata e numero di cluster dell'ultima scoperta, utilizzati
+	 * per il nome del file di salvataggio.
+	 */
+	private String dbTable = "";
+	private int iterfromtable = 0;
+	
+	/**
+	 * Thread su cui vengono eseguiti i comandi di lunga durata (0, 1 e 6), mentre il
+	 * thread del client resta in ascolto della richiesta di annullamento (comando 7)
+	 * e della disconnessione.
+	 */
+	private ExecutorService worker = Executors.newSingleThreadExecutor();
+	
+	/**
+	 * Job in esecuzione su {@link #worker}, oppure null.
+	 */
+	private Future<?> pendingJob;
+	
+	/**
+	 * Token di annullamento dell'ultimo job avviato.
+	 */
+	private volatile CancellationToken token;
+	
+	/**
+	 * Parametri del job di scoperta impostati dal client con il comando 5 
+	 * (nome del parametro -&gt; valore). Vengono applicati al {@link KmeansMiner}
+	 * creato dal comando 1.
+	 */
+	private HashMap<String, String> jobParameters = new HashMap<String, String>();
+	
+	/**
+	 * Numero massimo di thread che un singolo job pu&ograve utilizzare: met&agrave dei
+	 * processori disponibili, in modo che un unico client non possa occupare l'intero server.
+	 */
+	static final int MAX_THREADS_PER_JOB = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	
+	/**
+	 * Intervallo minimo in millisecondi tra due messaggi di avanzamento inviati al client.
+	 */
+	static final long PROGRESS_INTERVAL = 100;
 
 	
 	/**
@@ -103,6 +159,47 @@ class ServerOneClient extends Thread{
 	 * di scrivere sullo stream di output il relativo messaggio di errore, viceversa per ogni
 	 * operazione che va a buon fine, il server scrive sullo stream di output il messaggio
 	 * "OK".<br><br>
+	 * Prima del comando 1 il client pu&ograve inviare (anche pi&ugrave volte) il comando 5,
+	 * seguito dal nome e dal valore (stringhe) di un parametro del job di scoperta:<br>
+	 * - threads: numero di thread da utilizzare (limitato a {@link #MAX_THREADS_PER_JOB})<br>
+	 * - engine: variante dell'algoritmo (standard, elkan, hamerly, yinyang, minibatch, bisecting; vedi
+	 * {@link mining.ENGINE_TYPE}); con la variante bisecting il risultato del comando 1 comprende
+	 * anche l'albero delle divisioni dei cluster (vedi {@link mining.ClusterSet#getHierarchy()})
+	 * e, se il tempo massimo interrompe le divisioni, il numero di cluster ottenuti<br>
+	 * - batchsize, batchiterations: dimensione del campione e numero di iterazioni della
+	 * variante minibatch (vedi {@link mining.KmeansMiner#setMiniBatch(int, int)})<br>
+	 * - seeding: scelta dei centroidi iniziali (random, kmeanspp, kmeansparallel; vedi {@link mining.SEEDING_TYPE})<br>
+	 * - seed: seme del generatore casuale, per esecuzioni ripetibili<br>
+	 * - restarts: numero di esecuzioni indipendenti, eseguite in parallelo, tra le quali viene
+	 * mantenuta quella di obiettivo minore (vedi {@link mining.KmeansMiner#setRestarts(int)})<br>
+	 * - maxiterations, minmoved, maxshift, timebudget: criteri di arresto (numero massimo di
+	 * iterazioni, frazione minima di righe che cambiano cluster, spostamento minimo dei
+	 * centroidi, tempo massimo in millisecondi; vedi
+	 * {@link mining.KmeansMiner#setConvergence(int, double, double, long)})<br>
+	 * - progress: invio dell'avanzamento durante i comandi 1 e 6 (none, iterations, centroids;
+	 * vedi {@link #progressListener(CancellationToken)})<br>
+	 * - samplefraction: frazione delle righe su cui eseguire l'algoritmo prima di assegnare
+	 * tutte le righe ai centroidi ottenuti (vedi {@link mining.KmeansMiner#setSampleFraction(double)})<br>
+	 * - load: modalit&agrave di caricamento della tabella da parte del comando 0 (distinct: tuple
+	 * distinte, predefinita; grouped: tuple raggruppate, ciascuna pesata con il numero delle
+	 * sue occorrenze; vedi {@link data.Data#Data(String, List, boolean, CancellationToken)})<br>
+	 * - coreset: se impostato il comando 0 carica soltanto un coreset della tabella con il numero
+	 * di righe indicato (vedi {@link data.Data#Data(String, List, int, java.util.Random, CancellationToken)})<br>
+	 * - streamassign: se true e la tabella caricata dal comando 0 &egrave un coreset
+	 * ({@link data.Data#isCoreset()}), dopo l'esecuzione il comando 1 assegna ai cluster
+	 * tutte le tuple della tabella con una scansione in streaming e ne riporta le dimensioni e
+	 * l'obiettivo (vedi {@link mining.KmeansMiner#assignTable(Data, String, List)})<br>
+	 * Il server risponde "OK" oppure con il relativo messaggio di errore.<br><br>
+	 * I comandi 0, 1 e 6 vengono eseguiti su un thread separato ({@link #worker}): mentre
+	 * sono in esecuzione il client pu&ograve inviare il comando 7 per annullarli, e lo
+	 * stesso avviene se il client si disconnette (vedi {@link database.CancellationToken}).
+	 * Il comando annullato risponde con il relativo messaggio di errore; il comando 7 non
+	 * prevede risposta.<br><br>
+	 * Dopo il comando 0 il client pu&ograve inviare il comando 6, seguito dal minimo e dal
+	 * massimo valore di k (Integer) e dal flag di partenza a caldo (Boolean): il server
+	 * esegue l'algoritmo per ciascun k sulla tabella gi&agrave caricata (vedi
+	 * {@link mining.KmeansMiner#sweep(Data, int, int, boolean)}) e risponde "OK" seguito
+	 * da una tabella (stringa) con l'obiettivo, le iterazioni e il tempo di ciascun k.<br><br>
 	 * Nel caso il cui la richiesta &grave una lettura di un risultato precendente di scoperta su file
 	 * , il client invia il comando 3. In questo caso verr&agrave inizializzato l'attributo {@link #kmeans}
 	 * attraverso il costruttore {@link mining.KmeansMiner#KmeansMiner(String)}<br>
@@ -113,15 +210,17 @@ class ServerOneClient extends Thread{
 	 */
 
 	public void run(){
-		String dbTable = "";
-		int iterfromtable = 0;
-		int numIter = 0;
-
 		try {
 			while(true){
 				Object input = in.readObject();
 				int sceltaClient = (Integer)input;
 
+				if(sceltaClient == 7){
+					cancelJob();
+					continue;
+				}
+				awaitJob();
+
 				switch(sceltaClient)
 				{
 				case 0:
@@ -129,54 +228,32 @@ class ServerOneClient extends Thread{
 						this.operaz = "Connessione al Database";
 					else
 						this.operaz = this.operaz + "Connessione al Database";
-					dbTable = (String)in.readObject();
-					try{
-						this.data = new Data(dbTable, this.frame.getSelectedValues());
-					} 
-					catch(SQLException e){
-						this.out.writeObject("Errore! - Nome Tabella Errato!");
-						break;
-					}
-					catch (EmptySetException e) {
-						this.out.writeObject(e.getMessage());
-						break;
-					}
-					catch (DatabaseConnectionException e) {
-						this.out.writeObject(e.getMessage());
-						break;
-					}
-					catch (NoValueException e) {
-						this.out.writeObject(e.getMessage());
-						break;
-					}
-
-					this.flagOp = true;
-					this.out.writeObject("OK");
+					final String table = (String)in.readObject();
+					this.dbTable = table;
+					submit(new Job() {
+						public void execute(CancellationToken token) throws IOException {
+							loadTable(table, token);
+						}
+					});
 
 					break;
 
 				case 1:
-					iterfromtable = (Integer)in.readObject();
-					this.operaz = this.operaz + "-" + "Esecuzione KMeans (k = " + iterfromtable + ")";
-					this.kmeans = new KmeansMiner(iterfromtable);
-
-					try{
-						numIter = this.kmeans.kmeans(this.data);
-					}catch (OutOfRangeSampleSize e) {
-						this.out.writeObject(e.getMessage());
-						break;
-					}
-
-					this.out.writeObject("OK");
-					this.out.writeObject(numIter);
-					this.out.writeObject(kmeans.getC().toString(this.data));
+					final int k = (Integer)in.readObject();
+					this.iterfromtable = k;
+					this.operaz = this.operaz + "-" + "Esecuzione KMeans (k = " + k + ")";
+					submit(new Job() {
+						public void execute(CancellationToken token) throws IOException {
+							mine(k, token);
+						}
+					});
 
 					break;
 
 				case 2:
 					this.operaz = this.operaz + "-" + "Salvataggio File";
 					try{
-						this.kmeans.salva(dbTable + iterfromtable);
+						this.kmeans.salva(this.dbTable + this.iterfromtable);
 					}
 					catch(IOException e){
 						this.out.writeObject("Errore! - Salvataggio del file non riuscito!");
@@ -249,7 +326,7 @@ class ServerOneClient extends Thread{
 					} else{
 						this.out.writeObject(chartData.getDataset());
 						if(data != null)
-							this.out.writeObject(this.data.getNumberOfExamples());
+							this.out.writeObject((int)Math.min(this.data.getTotalWeight(), Integer.MAX_VALUE));
 						else
 							this.out.writeObject(this.kmeans.getC().getLen());
 					}
@@ -258,6 +335,38 @@ class ServerOneClient extends Thread{
 
 					break;
 
+				case 5:
+					String paramName = (String)in.readObject();
+					String paramValue = (String)in.readObject();
+
+					try{
+						setJobParameter(paramName, paramValue);
+					} catch(IllegalArgumentException e){
+						this.out.writeObject(e.getMessage());
+						break;
+					}
+
+					this.out.writeObject("OK");
+					break;
+
+				case 6:
+					final int kMin = (Integer)in.readObject();
+					final int kMax = (Integer)in.readObject();
+					final boolean warmStart = (Boolean)in.readObject();
+					this.operaz = this.operaz + "-" + "Ricerca di k (k = " + kMin + " - " + kMax + ")";
+
+					if(this.data == null){
+						this.out.writeObject("Errore! - Nessuna tabella caricata!");
+						break;
+					}
+
+					submit(new Job() {
+						public void execute(CancellationToken token) throws IOException {
+							sweep(kMin, kMax, warmStart, token);
+						}
+					});
+					break;
+
 				}
 			}
 		} catch (IOException e) {
@@ -268,6 +377,9 @@ class ServerOneClient extends Thread{
 		} catch (ClassNotFoundException e) {
 			this.frame.setOutputText(e.getMessage());
 		} finally{
+			// il client non attende piu' alcuna risposta: il job in corso viene annullato
+			cancelJob();
+			this.worker.shutdown();
 			try {
 				this.socket.close();
 			} catch (IOException e) {
@@ -275,4 +387,455 @@ class ServerOneClient extends Thread{
 			}
 		}	
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Comando 0: carica la tabella table dalla base di dati.
+	 * 
+	 * @param table Nome della tabella
+	 * @param token Il token di annullamento del job
+	 * 
+	 * @throws IOException Se la risposta non pu&ograve essere inviata al client
+	 */
+	
+	private void loadTable(String table, CancellationToken token) throws IOException{
+		try{
+			if(this.jobParameters.containsKey("coreset")){
+				Random rand = this.jobParameters.containsKey("seed") ? new Random(Long.parseLong(this.jobParameters.get("seed"))) : new Random();
+				this.data = new Data(table, this.frame.getSelectedValues(), Integer.parseInt(this.jobParameters.get("coreset")), rand, token);
+			} else {
+				boolean grouped = "grouped".equals(this.jobParameters.get("load"));
+				this.data = new Data(table, this.frame.getSelectedValues(), grouped, token);
+			}
+		} 
+		catch(SQLException e){
+			this.out.writeObject("Errore! - Nome Tabella Errato!");
+			return;
+		}
+		catch (EmptySetException e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		}
+		catch (DatabaseConnectionException e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		}
+		catch (NoValueException e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		}
+		catch (ClassNotFoundException e) {
+			this.frame.setOutputText(e.getMessage());
+			this.out.writeObject("Errore! - Driver del Database non trovato!");
+			return;
+		}
+		catch (JobCancelledException e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		}
+
+		this.flagOp = true;
+		this.out.writeObject("OK");
+	}
+	
+	/**
+	 * Comando 1: esegue la scoperta di k cluster sulla tabella caricata.
+	 * 
+	 * @param k		Numero di cluster da scoprire
+	 * @param token Il token di annullamento del job
+	 * 
+	 * @throws IOException Se la risposta non pu&ograve essere inviata al client
+	 */
+	
+	private void mine(int k, CancellationToken token) throws IOException{
+		int numIter;
+		
+		this.kmeans = new KmeansMiner(k);
+		configure(this.kmeans);
+		this.kmeans.setCancellationToken(token);
+		this.kmeans.setProgressListener(progressListener(token));
+
+		try{
+			numIter = this.kmeans.kmeans(this.data);
+		}catch (OutOfRangeSampleSize e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		}catch (JobCancelledException e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		}
+
+		String assignment = "";
+		if(this.data.isCoreset() && "true".equals(this.jobParameters.get("streamassign"))){
+			try{
+				assignment = this.kmeans.assignTable(this.data, this.dbTable, this.frame.getSelectedValues()).toString();
+			}catch (JobCancelledException e) {
+				this.out.writeObject(e.getMessage());
+				return;
+			}catch (SQLException e) {
+				this.out.writeObject("Errore! - Nome Tabella Errato!");
+				return;
+			}catch (EmptySetException e) {
+				this.out.writeObject(e.getMessage());
+				return;
+			}catch (DatabaseConnectionException e) {
+				this.out.writeObject(e.getMessage());
+				return;
+			}catch (ClassNotFoundException e) {
+				this.frame.setOutputText(e.getMessage());
+				this.out.writeObject("Errore! - Driver del Database non trovato!");
+				return;
+			}
+		}
+
+		this.out.writeObject("OK");
+		this.out.writeObject(numIter);
+		String hierarchy = "";
+		if(kmeans.getC().getHierarchy() != null)
+			hierarchy = "Albero delle divisioni:\n" + kmeans.getC().getHierarchy().toString();
+
+		// la variante bisecting puo' produrre meno cluster di quelli richiesti
+		String clusters = "";
+		if(kmeans.getC().getLen() < k)
+			clusters = "Cluster ottenuti: " + kmeans.getC().getLen() + " su " + k + " richiesti\n";
+
+		this.out.writeObject(kmeans.getC().toString(this.data) + clusters + statistics(this.kmeans) + assignment + hierarchy);
+	}
+	
+	/**
+	 * Comando 6: esegue l'algoritmo per ciascun k compreso tra kMin e kMax.
+	 * 
+	 * @param kMin		Il minimo numero di cluster
+	 * @param kMax		Il massimo numero di cluster
+	 * @param warmStart true per la partenza a caldo
+	 * @param token		Il token di annullamento del job
+	 * 
+	 * @throws IOException Se la risposta non pu&ograve essere inviata al client
+	 */
+	
+	private void sweep(int kMin, int kMax, boolean warmStart, CancellationToken token) throws IOException{
+		KmeansMiner sweepMiner = new KmeansMiner(kMax);
+		configure(sweepMiner);
+		sweepMiner.setCancellationToken(token);
+		sweepMiner.setProgressListener(progressListener(token));
+		List<SweepResult> sweep;
+
+		try{
+			sweep = sweepMiner.sweep(this.data, kMin, kMax, warmStart);
+		} catch (OutOfRangeSampleSize e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		} catch (IllegalArgumentException e) {
+			this.out.writeObject("Errore! - Intervallo di k non valido!");
+			return;
+		} catch (JobCancelledException e) {
+			this.out.writeObject(e.getMessage());
+			return;
+		}
+
+		this.out.writeObject("OK");
+		this.out.writeObject(sweepTable(sweep));
+	}
+	
+	/**
+	 * Crea l'osservatore che invia al client l'avanzamento del job, se richiesto con il
+	 * parametro progress: per ciascuna iterazione (al massimo una ogni
+	 * {@link #PROGRESS_INTERVAL} millisecondi) il server invia, prima della risposta al
+	 * comando, una lista (ArrayList) contenente la stringa "PROGRESS", il numero
+	 * dell'iterazione, il numero di righe che hanno cambiato cluster, l'obiettivo e il tempo
+	 * trascorso in millisecondi; con il valore centroids la lista contiene in coda anche
+	 * i centroidi provvisori (stringa). Se l'invio fallisce il client si &egrave disconnesso
+	 * e il job viene annullato.
+	 * 
+	 * @param token Il token di annullamento del job
+	 * 
+	 * @return L'osservatore, oppure null se il client non ha richiesto l'avanzamento
+	 */
+	
+	private ProgressListener progressListener(final CancellationToken token){
+		final String progress = this.jobParameters.get("progress");
+		
+		if(progress == null || progress.equals("none"))
+			return null;
+		
+		return new ProgressListener() {
+			private long lastFrame = -PROGRESS_INTERVAL;
+			
+			public void iterationCompleted(int iteration, int moved, double objective, long millis, ClusterSet C) {
+				long now = System.currentTimeMillis();
+				if(now - lastFrame < PROGRESS_INTERVAL)
+					return;
+				lastFrame = now;
+				
+				ArrayList<Object> frame = new ArrayList<Object>();
+				frame.add("PROGRESS");
+				frame.add(iteration);
+				frame.add(moved);
+				frame.add(objective);
+				frame.add(millis);
+				if(progress.equals("centroids"))
+					frame.add(C.toString());
+				
+				try{
+					out.writeObject(frame);
+					// i frame non vengono mantenuti nella tabella dei riferimenti dello stream
+					out.reset();
+				} catch(IOException e){
+					token.cancel();
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Avvia il job sul thread {@link #worker} con un nuovo token di annullamento.
+	 * Un errore di invio della risposta indica che il client si &egrave disconnesso:
+	 * la disconnessione viene gestita da {@link #run()}.
+	 * 
+	 * @param job Il job da eseguire
+	 */
+	
+	private void submit(final Job job){
+		final CancellationToken token = new CancellationToken();
+		
+		this.token = token;
+		this.pendingJob = this.worker.submit(new Runnable() {
+			public void run() {
+				try{
+					job.execute(token);
+				} catch(IOException e){
+					// il client si e' disconnesso
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Attende la terminazione del job in esecuzione (se presente), in modo che i comandi
+	 * successivi operino sui suoi risultati.
+	 */
+	
+	private void awaitJob(){
+		if(this.pendingJob == null)
+			return;
+		
+		try{
+			this.pendingJob.get();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		} catch(ExecutionException e){
+			this.frame.setOutputText(e.getCause().toString());
+		}
+		this.pendingJob = null;
+	}
+	
+	/**
+	 * Annulla il job in esecuzione (se presente).
+	 */
+	
+	private void cancelJob(){
+		if(this.token != null)
+			this.token.cancel();
+	}
+	
+	/**
+	 * Verifica e memorizza un parametro del job di scoperta inviato dal client.
+	 * 
+	 * @param name  Nome del parametro
+	 * @param value Valore del parametro
+	 * 
+	 * @throws IllegalArgumentException Se il parametro non esiste o il valore non &egrave valido
+	 */
+	
+	private void setJobParameter(String name, String value){
+		if(name.equals("threads")){
+			if(parsePositive(value) < 1)
+				throw new IllegalArgumentException("Errore! - Numero di thread non valido: " + value);
+		} else if(name.equals("batchsize") || name.equals("batchiterations") || name.equals("restarts")){
+			if(parsePositive(value) < 1)
+				throw new IllegalArgumentException("Errore! - Valore non valido per " + name + ": " + value);
+		} else if(name.equals("engine")){
+			try{
+				ENGINE_TYPE.valueOf(value.toUpperCase());
+			} catch(IllegalArgumentException e){
+				throw new IllegalArgumentException("Errore! - Variante dell'algoritmo sconosciuta: " + value);
+			}
+		} else if(name.equals("seeding")){
+			try{
+				SEEDING_TYPE.valueOf(value.toUpperCase());
+			} catch(IllegalArgumentException e){
+				throw new IllegalArgumentException("Errore! - Strategia di inizializzazione sconosciuta: " + value);
+			}
+		} else if(name.equals("maxiterations")){
+			if(parsePositive(value) < 1)
+				throw new IllegalArgumentException("Errore! - Valore non valido per " + name + ": " + value);
+		} else if(name.equals("timebudget")){
+			if(parsePositiveLong(value) < 1)
+				throw new IllegalArgumentException("Errore! - Valore non valido per " + name + ": " + value);
+		} else if(name.equals("minmoved") || name.equals("maxshift") || name.equals("samplefraction")){
+			double v = parseDouble(value);
+			if(!(v > 0) || ((name.equals("minmoved") || name.equals("samplefraction")) && v > 1))
+				throw new IllegalArgumentException("Errore! - Valore non valido per " + name + ": " + value);
+		} else if(name.equals("progress")){
+			if(!value.equals("none") && !value.equals("iterations") && !value.equals("centroids"))
+				throw new IllegalArgumentException("Errore! - Valore non valido per progress: " + value);
+		} else if(name.equals("coreset")){
+			if(parsePositive(value) < 2)
+				throw new IllegalArgumentException("Errore! - Dimensione del coreset non valida: " + value);
+		} else if(name.equals("streamassign")){
+			if(!value.equals("true") && !value.equals("false"))
+				throw new IllegalArgumentException("Errore! - Valore non valido per streamassign: " + value);
+		} else if(name.equals("load")){
+			if(!value.equals("distinct") && !value.equals("grouped"))
+				throw new IllegalArgumentException("Errore! - Valore non valido per load: " + value);
+		} else if(name.equals("seed")){
+			try{
+				Long.parseLong(value);
+			} catch(NumberFormatException e){
+				throw new IllegalArgumentException("Errore! - Seme non valido: " + value);
+			}
+		} else
+			throw new IllegalArgumentException("Errore! - Parametro sconosciuto: " + name);
+		
+		this.jobParameters.put(name, value);
+	}
+	
+	/**
+	 * Converte in intero il valore di un parametro numerico.
+	 * 
+	 * @param value Il valore del parametro
+	 * 
+	 * @return Il valore intero, oppure 0 se la stringa non rappresenta un intero
+	 */
+	
+	private static int parsePositive(String value){
+		try{
+			return Integer.parseInt(value);
+		} catch(NumberFormatException e){
+			return 0;
+		}
+	}
+	
+	/**
+	 * Converte in long il valore di un parametro numerico (ad esempio un tempo in millisecondi).
+	 * 
+	 * @param value Il valore del parametro
+	 * 
+	 * @return Il valore long, oppure 0 se la stringa non rappresenta un intero
+	 */
+	
+	private static long parsePositiveLong(String value){
+		try{
+			return Long.parseLong(value);
+		} catch(NumberFormatException e){
+			return 0;
+		}
+	}
+	
+	/**
+	 * Converte in double il valore di un parametro numerico.
+	 * 
+	 * @param value Il valore del parametro
+	 * 
+	 * @return Il valore, oppure NaN se la stringa non rappresenta un numero
+	 */
+	
+	private static double parseDouble(String value){
+		try{
+			return Double.parseDouble(value);
+		} catch(NumberFormatException e){
+			return Double.NaN;
+		}
+	}
+	
+	/**
+	 * Applica al miner i parametri del job impostati dal client.
+	 * 
+	 * @param miner Il {@link KmeansMiner} da configurare
+	 */
+	
+	private void configure(KmeansMiner miner){
+		if(this.jobParameters.containsKey("threads"))
+			miner.setParallelism(Math.min(Integer.parseInt(this.jobParameters.get("threads")), MAX_THREADS_PER_JOB));
+		if(this.jobParameters.containsKey("engine"))
+			miner.setEngine(ENGINE_TYPE.valueOf(this.jobParameters.get("engine").toUpperCase()));
+		if(this.jobParameters.containsKey("restarts"))
+			miner.setRestarts(Integer.parseInt(this.jobParameters.get("restarts")));
+		if(this.jobParameters.containsKey("seeding"))
+			miner.setSeeding(SEEDING_TYPE.valueOf(this.jobParameters.get("seeding").toUpperCase()));
+		if(this.jobParameters.containsKey("seed"))
+			miner.setSeed(Long.parseLong(this.jobParameters.get("seed")));
+		if(this.jobParameters.containsKey("samplefraction"))
+			miner.setSampleFraction(Double.parseDouble(this.jobParameters.get("samplefraction")));
+		if(this.jobParameters.containsKey("batchsize") || this.jobParameters.containsKey("batchiterations"))
+			miner.setMiniBatch(
+					this.jobParameters.containsKey("batchsize") ? Integer.parseInt(this.jobParameters.get("batchsize")) : miner.getBatchSize(),
+					this.jobParameters.containsKey("batchiterations") ? Integer.parseInt(this.jobParameters.get("batchiterations")) : miner.getBatchIterations());
+		miner.setConvergence(
+				this.jobParameters.containsKey("maxiterations") ? Integer.parseInt(this.jobParameters.get("maxiterations")) : 0,
+				this.jobParameters.containsKey("minmoved") ? Double.parseDouble(this.jobParameters.get("minmoved")) : 0,
+				this.jobParameters.containsKey("maxshift") ? Double.parseDouble(this.jobParameters.get("maxshift")) : 0,
+				this.jobParameters.containsKey("timebudget") ? Long.parseLong(this.jobParameters.get("timebudget")) : 0);
+	}
+	
+	/**
+	 * Crea la tabella dei risultati della ricerca di k inviata al client: una riga per
+	 * ciascun k con l'obiettivo, il numero di iterazioni e il tempo impiegato.
+	 * 
+	 * @param sweep I risultati della ricerca
+	 */
+	
+	private static String sweepTable(List<SweepResult> sweep){
+		String table = "k\tObiettivo\tIterazioni\tTempo (ms)\n";
+		
+		for(SweepResult result : sweep)
+			table += result + "\n";
+		
+		return table;
+	}
+	
+	/**
+	 * Crea la stringa con le statistiche dell'esecuzione da accodare al risultato
+	 * inviato al client. Per le varianti diverse da quella standard riporta il numero
+	 * di distanze calcolate e di quelle evitate; in caso di riavvii multipli riporta
+	 * l'obiettivo e il numero di iterazioni di ciascun riavvio. Riporta inoltre il criterio
+	 * che ha terminato l'esecuzione e, se l'algoritmo &egrave stato eseguito su un campione,
+	 * la dimensione del campione e l'obiettivo sull'intera tabella.
+	 * 
+	 * @param miner Il {@link KmeansMiner} che ha eseguito l'algoritmo
+	 */
+	
+	private String statistics(KmeansMiner miner){
+		String stats = "Criterio di arresto: " + miner.getStopCriterion() + "\n";
+		
+		if(miner.getSampleFraction() < 1)
+			stats += "Campione: " + miner.getSampleSize() + " righe su " + this.data.getNumberOfExamples()
+					+ " - Obiettivo sull'intera tabella: " + miner.getObjective() + "\n";
+		
+		if(miner.getEngine() != ENGINE_TYPE.STANDARD)
+			stats += "Variante: " + miner.getEngine() + " - Distanze calcolate: " + miner.getDistanceComputations()
+					+ " - Distanze evitate: " + miner.getPrunedDistances() + "\n";
+		
+		if(miner.getRestarts() > 1)
+			for(int r = 0; r < miner.getRestarts(); r++)
+				stats += "Riavvio " + (r + 1) + ": Obiettivo " + miner.getRestartObjectives()[r]
+						+ " - Iterazioni " + miner.getRestartIterations()[r]
+						+ (r == miner.getBestRestart() ? " (mantenuto)" : "") + "\n";
+		
+		return stats;
+	}
+	
+	/**
+	 * L'interfaccia modella un comando di lunga durata eseguito su {@link #worker}.
+	 */
+	private interface Job {
+		
+		/**
+		 * Esegue il comando e invia la risposta al client.
+		 * 
+		 * @param token Il token di annullamento del job
+		 * 
+		 * @throws IOException Se la risposta non pu&ograve essere inviata al client
+		 */
+		void execute(CancellationToken token) throws IOException;
+	}
+}